@@ -0,0 +1,29 @@
+plugins {
+    java
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":configlib-yaml"))
+    implementation(project(":configlib-json"))
+    implementation("org.snakeyaml:snakeyaml-engine:2.7")
+    implementation("org.openjdk.jmh:jmh-core:1.37")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Runs the benchmarks, e.g.: gradle :configlib-benchmarks:jmh -Pjmh="CollectionBenchmark -f 1"
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((project.findProperty("jmh") as String? ?: "").split(" ").filter { it.isNotEmpty() })
+}
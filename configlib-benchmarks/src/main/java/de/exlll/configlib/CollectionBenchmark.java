@@ -0,0 +1,60 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to serialize and deserialize configurations whose elements
+ * are large lists, sets, maps, and arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionBenchmark {
+    @Configuration
+    static final class Collections {
+        List<Integer> list = new ArrayList<>();
+        Set<String> set = new LinkedHashSet<>();
+        Map<String, Integer> map = new LinkedHashMap<>();
+        Long[] array = new Long[0];
+    }
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    private TypeSerializer<Collections, ?> serializer;
+    private Collections configuration;
+    private Map<?, ?> serializedConfiguration;
+
+    @Setup
+    public void setup() {
+        serializer = TypeSerializer.newSerializerFor(
+                Collections.class,
+                ConfigurationProperties.newBuilder().build()
+        );
+        configuration = new Collections();
+        configuration.array = new Long[size];
+        for (int i = 0; i < size; i++) {
+            configuration.list.add(i);
+            configuration.set.add("element" + i);
+            configuration.map.put("key" + i, i);
+            configuration.array[i] = (long) i;
+        }
+        serializedConfiguration = serializer.serialize(configuration);
+    }
+
+    @Benchmark
+    public Map<?, ?> serialize() {
+        return serializer.serialize(configuration);
+    }
+
+    @Benchmark
+    public Collections deserialize() {
+        return serializer.deserialize(serializedConfiguration);
+    }
+}
@@ -0,0 +1,113 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saves of item-heavy configurations by 1 to N threads that share a single
+ * store, the way asynchronous saves of player inventories do.
+ * <p>
+ * Each invocation saves one inventory per thread, each to its own file, and waits until
+ * all threads are done. Inventories change between invocations, so that every save
+ * actually writes its file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSaveBenchmark {
+    @Configuration
+    static final class Item {
+        String type = "";
+        int amount;
+        List<String> lore = new ArrayList<>();
+        Map<String, Map<String, Integer>> meta = new LinkedHashMap<>();
+    }
+
+    @Configuration
+    static final class Inventory {
+        String owner = "";
+        List<Item> items = new ArrayList<>();
+    }
+
+    @Param({"36", "1000"})
+    int items;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private YamlConfigurationStore<Inventory> store;
+    private Inventory[] inventories;
+    private Path[] files;
+    private Path directory;
+    private ExecutorService executor;
+    private int invocation;
+
+    @Setup
+    public void setup() throws IOException {
+        store = new YamlConfigurationStore<>(
+                Inventory.class,
+                YamlConfigurationProperties.newBuilder().build()
+        );
+        directory = Files.createTempDirectory("configlib-item-save");
+        inventories = new Inventory[threads];
+        files = new Path[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            inventories[thread] = newInventory(thread);
+            files[thread] = directory.resolve("inventory-" + thread + ".yml");
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    private Inventory newInventory(int thread) {
+        final Inventory inventory = new Inventory();
+        inventory.owner = "player-" + thread;
+        for (int i = 0; i < items; i++) {
+            final Item item = new Item();
+            item.type = "ITEM_" + (i % 64);
+            item.amount = i % 64 + 1;
+            item.lore.add("Crafted by player-" + thread);
+            item.lore.add("Slot " + i);
+            final Map<String, Integer> enchantments = new LinkedHashMap<>();
+            enchantments.put("sharpness", i % 5);
+            enchantments.put("unbreaking", i % 3);
+            item.meta.put("enchantments", enchantments);
+            inventory.items.add(item);
+        }
+        return inventory;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        for (Path file : files)
+            Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        final int amount = ++invocation;
+        final List<Future<?>> futures = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            final Inventory inventory = inventories[thread];
+            final Path file = files[thread];
+            futures.add(executor.submit(() -> {
+                inventory.items.get(0).amount = amount;
+                store.save(inventory, file);
+            }));
+        }
+        for (Future<?> future : futures)
+            future.get();
+    }
+}
@@ -0,0 +1,93 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading the same configuration as JSON and as YAML text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonYamlBenchmark {
+    @Configuration
+    static final class Player {
+        String name = "";
+        int level;
+        double balance;
+        List<String> permissions = new ArrayList<>();
+        Map<Integer, String> inventory = new LinkedHashMap<>();
+    }
+
+    @Configuration
+    static final class Players {
+        List<Player> players = new ArrayList<>();
+    }
+
+    @Param({"100", "10000"})
+    int size;
+
+    private JsonConfigurationStore<Players> jsonStore;
+    private YamlConfigurationStore<Players> yamlStore;
+    private Players configuration;
+    private String json;
+    private String yaml;
+
+    @Setup
+    public void setup() {
+        jsonStore = new JsonConfigurationStore<>(
+                Players.class,
+                JsonConfigurationProperties.newBuilder().build()
+        );
+        yamlStore = new YamlConfigurationStore<>(
+                Players.class,
+                YamlConfigurationProperties.newBuilder().build()
+        );
+        configuration = new Players();
+        for (int i = 0; i < size; i++) {
+            final Player player = new Player();
+            player.name = "player" + i;
+            player.level = i % 100;
+            player.balance = i * 1.25;
+            player.permissions.add("server.join");
+            player.permissions.add("server.rank." + (i % 5));
+            player.inventory.put(0, "DIAMOND_SWORD");
+            player.inventory.put(8, "BREAD");
+            configuration.players.add(player);
+        }
+        json = writeJson();
+        yaml = writeYaml();
+    }
+
+    @Benchmark
+    public String writeJson() {
+        final StringBuilder builder = new StringBuilder();
+        jsonStore.writeTo(configuration, builder);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String writeYaml() {
+        final StringBuilder builder = new StringBuilder();
+        yamlStore.writeTo(configuration, builder);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public Players readJson() {
+        return jsonStore.read(json);
+    }
+
+    @Benchmark
+    public Players readYaml() {
+        return yamlStore.read(yaml);
+    }
+}
@@ -0,0 +1,65 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to serialize and deserialize configurations that mostly
+ * consist of numbers of different types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberBenchmark {
+    @Configuration
+    static final class Numbers {
+        List<Byte> bytes = new ArrayList<>();
+        List<Short> shorts = new ArrayList<>();
+        List<Integer> ints = new ArrayList<>();
+        List<Long> longs = new ArrayList<>();
+        List<Float> floats = new ArrayList<>();
+        List<Double> doubles = new ArrayList<>();
+    }
+
+    @Param({"10000"})
+    int size;
+
+    private TypeSerializer<Numbers, ?> serializer;
+    private Numbers configuration;
+    private Map<?, ?> serializedConfiguration;
+
+    @Setup
+    public void setup() {
+        serializer = TypeSerializer.newSerializerFor(
+                Numbers.class,
+                ConfigurationProperties.newBuilder().build()
+        );
+        configuration = new Numbers();
+        for (int i = 0; i < size; i++) {
+            configuration.bytes.add((byte) i);
+            configuration.shorts.add((short) i);
+            configuration.ints.add(i);
+            configuration.longs.add((long) i * Integer.MAX_VALUE);
+            configuration.floats.add(i / 3f);
+            configuration.doubles.add(i / 7d);
+        }
+        serializedConfiguration = serializer.serialize(configuration);
+    }
+
+    @Benchmark
+    public Map<?, ?> serialize() {
+        return serializer.serialize(configuration);
+    }
+
+    @Benchmark
+    public Numbers deserialize() {
+        return serializer.deserialize(serializedConfiguration);
+    }
+}
@@ -0,0 +1,85 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sequential and parallel deserialization of a configuration that contains a
+ * large list of nested configurations, using 1 to N threads.
+ * <p>
+ * Deserialization runs in a {@code ForkJoinPool} with the given number of threads. Tasks
+ * forked by a worker of a pool are executed by that pool, so the pool limits the number
+ * of threads that take part in parallel deserialization, the same way the parallelism
+ * of the common pool does when a configuration is loaded by any other thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelDeserializationBenchmark {
+    @Configuration
+    static final class Entry {
+        String name = "";
+        int x;
+        int y;
+        int z;
+        List<String> tags = new ArrayList<>();
+    }
+
+    @Configuration
+    static final class Entries {
+        List<Entry> entries = new ArrayList<>();
+    }
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private TypeSerializer<Entries, ?> serializer;
+    private Map<?, ?> serializedConfiguration;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        serializer = TypeSerializer.newSerializerFor(
+                Entries.class,
+                ConfigurationProperties.newBuilder()
+                        .parallelDeserialization(parallel)
+                        .build()
+        );
+        final Entries configuration = new Entries();
+        for (int i = 0; i < size; i++) {
+            final Entry entry = new Entry();
+            entry.name = "entry" + i;
+            entry.x = i;
+            entry.y = 2 * i;
+            entry.z = 3 * i;
+            entry.tags.add("tag" + (i % 10));
+            configuration.entries.add(entry);
+        }
+        serializedConfiguration = serializer.serialize(configuration);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Entries deserialize() {
+        return pool.submit(() -> serializer.deserialize(serializedConfiguration)).join();
+    }
+}
@@ -0,0 +1,85 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares serializing primitive arrays through the list views of the primitive array
+ * serializers with the boxed lists that were collected from streams before. The
+ * {@code baseline} benchmarks reproduce the previous implementation. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ * <p>
+ * The elements of the serialized lists are consumed the way a YAML dumper consumes them,
+ * because the views only box an element when it is read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveArrayBenchmark {
+    private static final Serializers.NumberSerializer INTEGER_SERIALIZER =
+            new Serializers.IntegerSerializer(int.class);
+    private static final Serializers.NumberSerializer DOUBLE_SERIALIZER =
+            new Serializers.DoubleSerializer(double.class);
+
+    @Param({"100", "100000"})
+    int size;
+
+    private int[] ints;
+    private double[] doubles;
+    private Serializers.PrimitiveIntegerArraySerializer intSerializer;
+    private Serializers.PrimitiveDoubleArraySerializer doubleSerializer;
+
+    @Setup
+    public void setup() {
+        ints = new int[size];
+        doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = i * 31;
+            doubles[i] = i / 7d;
+        }
+        intSerializer = new Serializers.PrimitiveIntegerArraySerializer();
+        doubleSerializer = new Serializers.PrimitiveDoubleArraySerializer();
+    }
+
+    @Benchmark
+    public void serializeInts(Blackhole blackhole) {
+        consume(intSerializer.serialize(ints), blackhole);
+    }
+
+    @Benchmark
+    public void serializeIntsBaseline(Blackhole blackhole) {
+        final int[] array = ints;
+        final List<Number> list = IntStream.range(0, array.length)
+                .mapToObj(i -> INTEGER_SERIALIZER.serialize(array[i]))
+                .collect(Collectors.toList());
+        consume(list, blackhole);
+    }
+
+    @Benchmark
+    public void serializeDoubles(Blackhole blackhole) {
+        consume(doubleSerializer.serialize(doubles), blackhole);
+    }
+
+    @Benchmark
+    public void serializeDoublesBaseline(Blackhole blackhole) {
+        final double[] array = doubles;
+        final List<Number> list = IntStream.range(0, array.length)
+                .mapToObj(i -> DOUBLE_SERIALIZER.serialize(array[i]))
+                .collect(Collectors.toList());
+        consume(list, blackhole);
+    }
+
+    private static void consume(List<?> list, Blackhole blackhole) {
+        for (int i = 0, size = list.size(); i < size; i++) {
+            blackhole.consume(list.get(i));
+        }
+    }
+}
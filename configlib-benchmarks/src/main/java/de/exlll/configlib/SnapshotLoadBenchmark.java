@@ -0,0 +1,105 @@
+package de.exlll.configlib;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares loading YAML configuration files by parsing them with loading them from the
+ * snapshots that are written when snapshots are cached.
+ * <p>
+ * Each invocation loads the given number of files, one after another, the way a server
+ * loads the configurations of its plugins when it boots. All files have the same
+ * contents but each of them has its own snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotLoadBenchmark {
+    @Configuration
+    static final class Server {
+        String name = "";
+        int port;
+        List<String> motd = new ArrayList<>();
+        Map<String, Integer> limits = new LinkedHashMap<>();
+    }
+
+    @Configuration
+    static final class Servers {
+        List<Server> servers = new ArrayList<>();
+    }
+
+    @Param({"100", "1000"})
+    int size;
+
+    @Param({"1", "800"})
+    int files;
+
+    @Param({"false", "true"})
+    boolean cacheSnapshots;
+
+    private Path directory;
+    private Path[] configurationFiles;
+    private YamlConfigurationStore<Servers> store;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("configlib-benchmark");
+        configurationFiles = new Path[files];
+        store = new YamlConfigurationStore<>(
+                Servers.class,
+                YamlConfigurationProperties.newBuilder()
+                        .cacheSnapshots(cacheSnapshots)
+                        .build()
+        );
+        final Servers configuration = new Servers();
+        for (int i = 0; i < size; i++) {
+            final Server server = new Server();
+            server.name = "server" + i;
+            server.port = 25565 + i;
+            server.motd.add("Welcome to server " + i);
+            server.limits.put("players", i);
+            server.limits.put("entities", 10 * i);
+            configuration.servers.add(server);
+        }
+        configurationFiles[0] = directory.resolve("servers0.yml");
+        store.save(configuration, configurationFiles[0]);
+        for (int i = 1; i < files; i++) {
+            configurationFiles[i] = directory.resolve("servers" + i + ".yml");
+            Files.copy(configurationFiles[0], configurationFiles[i]);
+        }
+        // the first load writes the snapshot if snapshots are cached
+        for (final Path configurationFile : configurationFiles) {
+            store.load(configurationFile);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void load(Blackhole blackhole) {
+        for (final Path configurationFile : configurationFiles) {
+            blackhole.consume(store.load(configurationFile));
+        }
+    }
+}
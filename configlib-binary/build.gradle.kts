@@ -0,0 +1,9 @@
+plugins {
+    `core-config`
+    `libs-config`
+}
+
+dependencies {
+    implementation(project(":configlib-yaml"))
+    implementation("org.snakeyaml:snakeyaml-engine:2.7")
+}
@@ -0,0 +1,381 @@
+package de.exlll.configlib;
+
+import org.snakeyaml.engine.v2.exceptions.YamlEngineException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A configuration store for configurations that are stored in a compact binary format.
+ * This class is intended for configurations that are written by code rather than by hand,
+ * like the state of a plugin. Configurations are serialized the same way they are
+ * serialized by the YAML configuration store, so that they can be converted to and from
+ * YAML for debugging using {@link #exportToYaml(Path, Path)} and
+ * {@link #importFromYaml(Path, Path)}.
+ * <p>
+ * A binary configuration consists of a header and the serialized configuration, which is
+ * encoded the same way as the snapshots of YAML files. The header contains the length of
+ * the encoded configuration and a fingerprint of the configuration type. The fingerprint is
+ * derived from the names and the generic types of the elements of the configuration type
+ * and, recursively, of the configuration types it contains. Because the serialized
+ * configuration contains the names of all elements, loading a configuration does not
+ * depend on the fingerprint, and a configuration can still be loaded after its type has
+ * changed. The fingerprint is used by {@link #update(Path)}, which only rewrites a file if
+ * its fingerprint doesn't match the current configuration type.
+ * <p>
+ * Configurations can also be read from and written to byte arrays and byte buffers, in
+ * which case no intermediate copies are created.
+ * <p>
+ * The header and footer of the properties of this store are not written, nor are the
+ * comments of configuration elements.
+ *
+ * @param <T> the configuration type
+ */
+public final class BinaryConfigurationStore<T> implements
+        FileConfigurationStore<T>,
+        IOStreamConfigurationStore<T> {
+    private static final int MAGIC = 0x434C4243; // "CLBC"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 4 + 1 + 8 + 4;
+    private final FileConfigurationProperties properties;
+    private final TypeSerializer<T, ?> serializer;
+    private final long fingerprint;
+
+    /**
+     * Constructs a new store.
+     *
+     * @param configurationType the type of configuration
+     * @param properties        the properties
+     * @throws NullPointerException if any argument is null
+     */
+    public BinaryConfigurationStore(Class<T> configurationType, FileConfigurationProperties properties) {
+        requireNonNull(configurationType, "configuration type");
+        this.properties = requireNonNull(properties, "properties");
+        this.serializer = TypeSerializer.newSerializerFor(configurationType, properties);
+        this.fingerprint = fingerprintOf(serializer, properties);
+    }
+
+    private static long fingerprintOf(
+            TypeSerializer<?, ?> serializer,
+            ConfigurationProperties properties
+    ) {
+        final StringBuilder builder = new StringBuilder(serializer.type.getName());
+        final Set<Class<?>> described = new HashSet<>();
+        described.add(serializer.type);
+        describeElements(serializer, properties, described, builder);
+        final byte[] hash = sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(hash).getLong();
+    }
+
+    private static void describeElements(
+            TypeSerializer<?, ?> serializer,
+            ConfigurationProperties properties,
+            Set<Class<?>> described,
+            StringBuilder builder
+    ) {
+        final NameFormatter formatter = serializer.formatter;
+        for (final ConfigurationElement<?> element : serializer.elements()) {
+            final Type type = element.annotatedType().getType();
+            builder.append('\n')
+                    .append(formatter.format(element.name()))
+                    .append(':')
+                    .append(type.getTypeName());
+            describeNestedConfigurations(type, properties, described, builder);
+        }
+    }
+
+    // appends the elements of the configuration types that are used by the given type,
+    // e.g. as the type of an element or as the element type of a list or map
+    private static void describeNestedConfigurations(
+            Type type,
+            ConfigurationProperties properties,
+            Set<Class<?>> described,
+            StringBuilder builder
+    ) {
+        if (type instanceof ParameterizedType) {
+            for (final Type argument : ((ParameterizedType) type).getActualTypeArguments())
+                describeNestedConfigurations(argument, properties, described, builder);
+        } else if (type instanceof GenericArrayType) {
+            final Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            describeNestedConfigurations(componentType, properties, described, builder);
+        } else if (type instanceof Class<?>) {
+            final Class<?> cls = (Class<?>) type;
+            if (cls.isArray()) {
+                describeNestedConfigurations(cls.getComponentType(), properties, described, builder);
+            } else if (Reflect.isConfigurationType(cls) && described.add(cls)) {
+                builder.append("\n{").append(cls.getName());
+                describeElements(
+                        TypeSerializer.newSerializerFor(cls, properties),
+                        properties, described, builder
+                );
+                builder.append("\n}");
+            }
+        }
+    }
+
+    @Override
+    public void write(T configuration, OutputStream outputStream) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(outputStream, "output stream");
+        try (OutputStream out = outputStream) {
+            out.write(encode(serializer.serialize(configuration), fingerprint).array());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void writeTo(T configuration, ByteBuffer buffer) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(buffer, "buffer");
+        final ByteBuffer contents = encode(serializer.serialize(configuration), fingerprint);
+        if (contents.remaining() > buffer.remaining())
+            throw new BufferOverflowException();
+        buffer.put(contents);
+    }
+
+    @Override
+    public void save(T configuration, Path configurationFile) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(configurationFile, "configuration file");
+        writeFile(configurationFile, encode(serializer.serialize(configuration), fingerprint));
+    }
+
+    private void writeFile(Path configurationFile, ByteBuffer contents) {
+        tryCreateParentDirectories(configurationFile);
+        try (FileChannel channel = FileChannel.open(
+                configurationFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+            while (contents.hasRemaining()) channel.write(contents);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void tryCreateParentDirectories(Path configurationFile) {
+        Path parent = configurationFile.toAbsolutePath().getParent();
+        if (!Files.exists(parent) && properties.createParentDirectories()) {
+            try {
+                Files.createDirectories(parent);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static ByteBuffer encode(Object tree, long fingerprint) {
+        final byte[] encodedTree;
+        try {
+            encodedTree = BinaryTreeCodec.encode(tree);
+        } catch (IllegalArgumentException e) {
+            String msg = "The given configuration could not be converted into its binary " +
+                         "representation. \nDo all custom serializers produce valid target types?";
+            throw new ConfigurationException(msg, e);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + encodedTree.length);
+        buffer.putInt(MAGIC)
+                .put((byte) VERSION)
+                .putLong(fingerprint)
+                .putInt(encodedTree.length)
+                .put(encodedTree);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public T read(InputStream inputStream) {
+        requireNonNull(inputStream, "input stream");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) out.write(buffer, 0, read);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        final Map<?, ?> tree = decode(ByteBuffer.wrap(out.toByteArray()), "the input stream");
+        return serializer.deserialize(tree);
+    }
+
+    @Override
+    public T read(byte[] bytes) {
+        requireNonNull(bytes, "bytes");
+        return serializer.deserialize(decode(ByteBuffer.wrap(bytes), "the given bytes"));
+    }
+
+    @Override
+    public T read(ByteBuffer buffer) {
+        requireNonNull(buffer, "buffer");
+        // a slice is big-endian regardless of the byte order of the given buffer
+        final ByteBuffer contents = buffer.slice();
+        buffer.position(buffer.limit());
+        return serializer.deserialize(decode(contents, "the given buffer"));
+    }
+
+    @Override
+    public T load(Path configurationFile) {
+        requireNonNull(configurationFile, "configuration file");
+        final ByteBuffer contents = readFile(configurationFile);
+        return serializer.deserialize(decode(contents, "the configuration file at " + configurationFile));
+    }
+
+    private static ByteBuffer readFile(Path configurationFile) {
+        try (FileChannel channel = FileChannel.open(configurationFile, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                String msg = "The configuration file at " + configurationFile + " is too large.";
+                throw new ConfigurationException(msg);
+            }
+            // a heap buffer lets the decoder create strings directly from its backing array
+            final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && (channel.read(buffer) != -1)) ;
+            buffer.flip();
+            return buffer;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Map<?, ?> decode(ByteBuffer buffer, String source) {
+        final Object tree = BinaryTreeCodec.decode(payloadOf(buffer, source));
+        if (!(tree instanceof Map<?, ?>)) {
+            String msg = "The contents of " + source + " do not represent a configuration.";
+            throw new ConfigurationException(msg);
+        }
+        return (Map<?, ?>) tree;
+    }
+
+    private static ByteBuffer payloadOf(ByteBuffer buffer, String source) {
+        if ((buffer.remaining() < HEADER_LENGTH) || (buffer.getInt() != MAGIC)) {
+            String msg = "The contents of " + source + " are not a binary configuration.";
+            throw new ConfigurationException(msg);
+        }
+        final int version = buffer.get();
+        if (version != VERSION) {
+            String msg = "The binary configuration in " + source + " has version " + version +
+                         " but only version " + VERSION + " is supported.";
+            throw new ConfigurationException(msg);
+        }
+        buffer.getLong(); // the fingerprint
+        final int length = buffer.getInt();
+        if (length != buffer.remaining()) {
+            String msg = "The binary configuration in " + source + " is truncated or corrupt.";
+            throw new ConfigurationException(msg);
+        }
+        return buffer;
+    }
+
+    private static long fingerprintOf(ByteBuffer contents) {
+        return (contents.remaining() >= HEADER_LENGTH) && (contents.getInt(0) == MAGIC)
+                ? contents.getLong(5)
+                : 0;
+    }
+
+    @Override
+    public T update(Path configurationFile) {
+        requireNonNull(configurationFile, "configuration file");
+        if (Files.exists(configurationFile)) {
+            final ByteBuffer contents = readFile(configurationFile);
+            final boolean upToDate = fingerprintOf(contents) == fingerprint;
+            final String source = "the configuration file at " + configurationFile;
+            final T configuration = serializer.deserialize(decode(contents, source));
+            if (!upToDate) save(configuration, configurationFile);
+            return configuration;
+        }
+        T defaultConfiguration = serializer.newDefaultInstance();
+        save(defaultConfiguration, configurationFile);
+        return defaultConfiguration;
+    }
+
+    /**
+     * Converts the given binary configuration file into a YAML file. The YAML file contains
+     * the values of the binary file but not their exact types: Integers are read back from
+     * YAML as {@code Integer}, {@code Long}, or {@code BigInteger} depending on their size,
+     * and floating point numbers as {@code Double}. Because
+     * {@link #importFromYaml(Path, Path)} converts these numbers to the types of the
+     * elements they belong to, converting the YAML file back yields an equal configuration.
+     *
+     * @param configurationFile the binary configuration file
+     * @param yamlFile          the YAML file that is written
+     * @throws ConfigurationException if the binary file is not a valid configuration
+     * @throws NullPointerException   if any argument is null
+     * @throws RuntimeException       if reading or writing throws an exception
+     */
+    public void exportToYaml(Path configurationFile, Path yamlFile) {
+        requireNonNull(configurationFile, "configuration file");
+        requireNonNull(yamlFile, "YAML file");
+        final String source = "the configuration file at " + configurationFile;
+        final Map<?, ?> tree = decode(readFile(configurationFile), source);
+        tryCreateParentDirectories(yamlFile);
+        try (Writer writer = Files.newBufferedWriter(yamlFile, properties.getCharset())) {
+            writer.write(YamlConfigurationStore.newYamlDumper().dumpToString(tree));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Converts the given YAML file into a binary configuration file for the configuration
+     * type of this store. The YAML file is loaded into a configuration which is then saved
+     * by {@link #save(Object, Path)}, so the binary file contains the same values, with the
+     * same types, as if the configuration had been saved directly.
+     *
+     * @param yamlFile          the YAML file
+     * @param configurationFile the binary configuration file that is written
+     * @throws ConfigurationException if the YAML file does not contain a valid configuration
+     * @throws NullPointerException   if any argument is null
+     * @throws RuntimeException       if reading or writing throws an exception
+     */
+    public void importFromYaml(Path yamlFile, Path configurationFile) {
+        requireNonNull(yamlFile, "YAML file");
+        requireNonNull(configurationFile, "configuration file");
+        final Object tree;
+        try (Reader reader = Files.newBufferedReader(yamlFile, properties.getCharset())) {
+            tree = YamlConfigurationStore.newYamlLoader().loadFromReader(reader);
+        } catch (YamlEngineException e) {
+            String msg = "The YAML file at " + yamlFile + " does not contain valid YAML.";
+            throw new ConfigurationException(msg, e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!(tree instanceof Map<?, ?>)) {
+            String msg = "The contents of the YAML file at " + yamlFile +
+                         " do not represent a configuration.";
+            throw new ConfigurationException(msg);
+        }
+        save(serializer.deserialize((Map<?, ?>) tree), configurationFile);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryConfigurationStoreTest {
+    @Configuration
+    static final class Position {
+        double x;
+        double y;
+        double z;
+    }
+
+    @Configuration
+    static final class PluginState {
+        long lastSave;
+        List<Position> homes = new ArrayList<>();
+        Map<String, Integer> counters = new LinkedHashMap<>();
+    }
+
+    private static final BinaryConfigurationStore<PluginState> STORE =
+            new BinaryConfigurationStore<>(
+                    PluginState.class,
+                    YamlConfigurationProperties.newBuilder().build()
+            );
+
+    // a store whose nested Position type has no z element
+    private static final BinaryConfigurationStore<PluginState> STORE_WITHOUT_Z =
+            new BinaryConfigurationStore<>(
+                    PluginState.class,
+                    YamlConfigurationProperties.newBuilder()
+                            .setFieldFilter(field -> !(field.getDeclaringClass() == Position.class &&
+                                                       field.getName().equals("z")))
+                            .build()
+            );
+
+    private static PluginState newPluginState() {
+        final PluginState state = new PluginState();
+        state.lastSave = 1_700_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            final Position position = new Position();
+            position.x = i;
+            position.y = i + 0.5;
+            position.z = -i;
+            state.homes.add(position);
+        }
+        state.counters.put("joins", 42);
+        state.counters.put("deaths", 7);
+        return state;
+    }
+
+    private static void assertPluginStateEquals(PluginState expected, PluginState actual) {
+        assertEquals(expected.lastSave, actual.lastSave);
+        assertEquals(expected.homes.size(), actual.homes.size());
+        for (int i = 0; i < expected.homes.size(); i++) {
+            assertEquals(expected.homes.get(i).x, actual.homes.get(i).x);
+            assertEquals(expected.homes.get(i).y, actual.homes.get(i).y);
+            assertEquals(expected.homes.get(i).z, actual.homes.get(i).z);
+        }
+        assertEquals(expected.counters, actual.counters);
+    }
+
+    @Test
+    void byteArraysRoundTrip() {
+        final PluginState state = newPluginState();
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        STORE.writeTo(state, buffer);
+        buffer.flip();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        assertPluginStateEquals(state, STORE.read(bytes));
+    }
+
+    @Test
+    void readFromDirectBufferConsumesItsRemainingBytes() {
+        final PluginState state = newPluginState();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        buffer.position(10);
+        STORE.writeTo(state, buffer);
+        buffer.limit(buffer.position()).position(10);
+
+        assertPluginStateEquals(state, STORE.read(buffer));
+        assertEquals(buffer.limit(), buffer.position());
+    }
+
+    @Test
+    void writeToBufferThatIsTooSmallLeavesItsPositionUnchanged() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.position(4);
+        assertThrows(BufferOverflowException.class, () -> STORE.writeTo(newPluginState(), buffer));
+        assertEquals(4, buffer.position());
+    }
+
+    @Test
+    void readRejectsBytesThatAreNotABinaryConfiguration() {
+        final ConfigurationException exception = assertThrows(
+                ConfigurationException.class,
+                () -> STORE.read(new byte[]{1, 2, 3})
+        );
+        assertEquals(
+                "The contents of the given bytes are not a binary configuration.",
+                exception.getMessage()
+        );
+    }
+
+    @Test
+    void saveAndLoadRoundTrip(@TempDir Path tempDir) {
+        final Path file = tempDir.resolve("state.bin");
+        final PluginState state = newPluginState();
+
+        STORE.save(state, file);
+
+        assertPluginStateEquals(state, STORE.load(file));
+    }
+
+    @Test
+    void updateCreatesMissingFilesWithTheDefaultConfiguration(@TempDir Path tempDir) {
+        final Path file = tempDir.resolve("state.bin");
+
+        final PluginState state = STORE.update(file);
+
+        assertPluginStateEquals(new PluginState(), state);
+        assertPluginStateEquals(new PluginState(), STORE.load(file));
+    }
+
+    // replaces the tree of a binary configuration file, keeping its fingerprint
+    private static void replaceTree(Path file, Object tree) throws IOException {
+        final byte[] contents = Files.readAllBytes(file);
+        final byte[] encodedTree = BinaryTreeCodec.encode(tree);
+        final ByteBuffer buffer = ByteBuffer.allocate(17 + encodedTree.length)
+                .put(contents, 0, 13)
+                .putInt(encodedTree.length)
+                .put(encodedTree);
+        Files.write(file, buffer.array());
+    }
+
+    @Test
+    void updateDoesNotRewriteFilesWithTheCurrentFingerprint(@TempDir Path tempDir)
+            throws IOException {
+        final Path file = tempDir.resolve("state.bin");
+        STORE.save(newPluginState(), file);
+        // a file without counters is only completed if it is rewritten
+        replaceTree(file, Collections.singletonMap("lastSave", 5L));
+        final byte[] contents = Files.readAllBytes(file);
+
+        assertEquals(5L, STORE.update(file).lastSave);
+
+        assertArrayEquals(contents, Files.readAllBytes(file));
+    }
+
+    @Test
+    void updateRewritesFilesWithADifferentFingerprint(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("state.bin");
+        STORE.save(newPluginState(), file);
+        final byte[] saved = Files.readAllBytes(file);
+        replaceTree(file, Collections.singletonMap("lastSave", 5L));
+        final byte[] contents = Files.readAllBytes(file);
+        contents[5] ^= 1;
+        Files.write(file, contents);
+
+        final PluginState state = STORE.update(file);
+
+        final Path expected = tempDir.resolve("expected.bin");
+        STORE.save(state, expected);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(file));
+        assertArrayEquals(Arrays.copyOf(saved, 13), Arrays.copyOf(Files.readAllBytes(file), 13));
+    }
+
+    @Test
+    void updateRewritesFilesIfANestedConfigurationTypeChanged(@TempDir Path tempDir)
+            throws IOException {
+        final Path file = tempDir.resolve("state.bin");
+        STORE.save(newPluginState(), file);
+        final byte[] saved = Files.readAllBytes(file);
+
+        final PluginState state = STORE_WITHOUT_Z.update(file);
+        final byte[] updated = Files.readAllBytes(file);
+
+        assertFalse(Arrays.equals(Arrays.copyOf(saved, 13), Arrays.copyOf(updated, 13)));
+        assertTrue(updated.length < saved.length);
+        assertEquals(newPluginState().homes.get(2).y, state.homes.get(2).y);
+
+        STORE_WITHOUT_Z.update(file);
+        assertArrayEquals(updated, Files.readAllBytes(file));
+    }
+
+    @Test
+    void exportedFilesAreImportedIntoEqualFiles(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("state.bin");
+        final Path yamlFile = tempDir.resolve("state.yml");
+        final Path imported = tempDir.resolve("imported.bin");
+        final PluginState state = newPluginState();
+        // read back from YAML as an Integer, which importing converts back into a Long
+        state.lastSave = 5;
+        STORE.save(state, file);
+
+        STORE.exportToYaml(file, yamlFile);
+        STORE.importFromYaml(yamlFile, imported);
+
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(imported));
+        assertPluginStateEquals(state, STORE.load(imported));
+    }
+
+    @Test
+    void importRejectsYamlFilesThatAreNotValidConfigurations(@TempDir Path tempDir)
+            throws IOException {
+        final Path yamlFile = tempDir.resolve("state.yml");
+        final Path file = tempDir.resolve("state.bin");
+        Files.write(yamlFile, "lastSave: never\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(ConfigurationException.class, () -> STORE.importFromYaml(yamlFile, file));
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,335 @@
+package de.exlll.configlib;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes the trees of maps, lists, and scalars that are produced by serializers and
+ * YAML parsers into compact byte arrays and decodes them again.
+ * <p>
+ * Every value starts with a tag byte that determines its type. The type of every value
+ * is preserved, so that decoding an encoded tree yields a tree that is equal to the
+ * original one. The following types are supported:
+ * <ul>
+ * <li>{@code null} and {@code Boolean}, which are only encoded as their tag.</li>
+ * <li>
+ *     {@code Integer} and {@code Long}, which are encoded as zigzag-encoded varints, and
+ *     {@code BigInteger}, which is encoded as its length-prefixed two's-complement bytes.
+ * </li>
+ * <li>
+ *     {@code Float} and {@code Double}, which are encoded as their raw IEEE 754 bits in
+ *     big-endian byte order.
+ * </li>
+ * <li>
+ *     {@code String} and {@code byte[]}, which are encoded as their length, encoded as an
+ *     unsigned varint, followed by their UTF-8 encoded characters or their bytes.
+ * </li>
+ * <li>
+ *     {@code List}, {@code Set}, and {@code Map}, which are encoded as their size, encoded
+ *     as an unsigned varint, followed by their elements or their alternating keys and
+ *     values. They are decoded into {@code ArrayList}, {@code LinkedHashSet}, and
+ *     {@code LinkedHashMap} instances.
+ * </li>
+ * </ul>
+ * Lists, sets, and maps can be nested at most {@value #MAX_DEPTH} levels deep, so that
+ * neither encoding nor decoding a tree can overflow the stack.
+ */
+final class BinaryTreeCodec {
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INTEGER = 3;
+    private static final int LONG = 4;
+    private static final int BIG_INTEGER = 5;
+    private static final int FLOAT = 6;
+    private static final int DOUBLE = 7;
+    private static final int STRING = 8;
+    private static final int BINARY = 9;
+    private static final int LIST = 10;
+    private static final int MAP = 11;
+    private static final int SET = 12;
+    static final int MAX_DEPTH = 1000;
+
+    private BinaryTreeCodec() {}
+
+    /**
+     * Encodes the given tree.
+     *
+     * @param tree the tree
+     * @return the encoded tree
+     * @throws IllegalArgumentException if the tree contains a value of an unsupported type
+     *                                  or is nested more than {@value #MAX_DEPTH} levels deep
+     */
+    static byte[] encode(Object tree) {
+        final Writer writer = new Writer();
+        writer.writeValue(tree);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes a tree from the given bytes.
+     *
+     * @param bytes the encoded tree
+     * @return the decoded tree
+     * @throws ConfigurationException if the bytes are not a valid encoding of a tree
+     */
+    static Object decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decodes a tree from the remaining bytes of the given buffer. The buffer must not
+     * contain any bytes after the encoded tree.
+     *
+     * @param buffer the buffer containing the encoded tree
+     * @return the decoded tree
+     * @throws ConfigurationException if the bytes are not a valid encoding of a tree
+     */
+    static Object decode(ByteBuffer buffer) {
+        final Reader reader = new Reader(buffer);
+        try {
+            final Object result = reader.readValue();
+            if (buffer.hasRemaining()) throw malformed();
+            return result;
+        } catch (BufferUnderflowException e) {
+            throw malformed();
+        }
+    }
+
+    private static ConfigurationException malformed() {
+        String msg = "The binary data is not a valid encoding of a configuration.";
+        return new ConfigurationException(msg);
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[256];
+        private int position = 0;
+        private int depth = 0;
+
+        void writeValue(Object value) {
+            if (value == null) {
+                writeByte(NULL);
+            } else if (value instanceof Boolean) {
+                writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                writeByte(INTEGER);
+                final int i = (Integer) value;
+                writeUnsignedVarLong(((i << 1) ^ (i >> 31)) & 0xFFFFFFFFL);
+            } else if (value instanceof Long) {
+                writeByte(LONG);
+                final long l = (Long) value;
+                writeUnsignedVarLong((l << 1) ^ (l >> 63));
+            } else if (value instanceof BigInteger) {
+                writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (value instanceof Float) {
+                writeByte(FLOAT);
+                writeFixed(Float.floatToRawIntBits((Float) value), 4);
+            } else if (value instanceof Double) {
+                writeByte(DOUBLE);
+                writeFixed(Double.doubleToRawLongBits((Double) value), 8);
+            } else if (value instanceof String) {
+                writeByte(STRING);
+                writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof byte[]) {
+                writeByte(BINARY);
+                writeBytes((byte[]) value);
+            } else if (value instanceof List<?>) {
+                final List<?> list = (List<?>) value;
+                writeByte(LIST);
+                writeUnsignedVarLong(list.size());
+                enterCollection();
+                for (final Object element : list) writeValue(element);
+                depth--;
+            } else if (value instanceof Set<?>) {
+                final Set<?> set = (Set<?>) value;
+                writeByte(SET);
+                writeUnsignedVarLong(set.size());
+                enterCollection();
+                for (final Object element : set) writeValue(element);
+                depth--;
+            } else if (value instanceof Map<?, ?>) {
+                final Map<?, ?> map = (Map<?, ?>) value;
+                writeByte(MAP);
+                writeUnsignedVarLong(map.size());
+                enterCollection();
+                for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+                depth--;
+            } else {
+                String msg = "Values of type " + value.getClass().getName() +
+                             " cannot be encoded.";
+                throw new IllegalArgumentException(msg);
+            }
+        }
+
+        private void enterCollection() {
+            if (++depth <= MAX_DEPTH) return;
+            String msg = "Trees that are nested more than " + MAX_DEPTH +
+                         " levels deep cannot be encoded.";
+            throw new IllegalArgumentException(msg);
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeUnsignedVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeUnsignedVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte(((int) value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeFixed(long value, int length) {
+            for (int shift = 8 * (length - 1); shift >= 0; shift -= 8) {
+                writeByte((int) (value >>> shift));
+            }
+        }
+
+        private void ensureCapacity(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, position + length));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private int depth = 0;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Object readValue() {
+            final int tag = buffer.get();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INTEGER: {
+                    final long value = readUnsignedVarLong();
+                    if ((value >>> 32) != 0) throw malformed();
+                    final int i = (int) value;
+                    return (i >>> 1) ^ -(i & 1);
+                }
+                case LONG: {
+                    final long l = readUnsignedVarLong();
+                    return (l >>> 1) ^ -(l & 1);
+                }
+                case BIG_INTEGER: {
+                    final byte[] bytes = readBytes();
+                    if (bytes.length == 0) throw malformed();
+                    return new BigInteger(bytes);
+                }
+                case FLOAT:
+                    return Float.intBitsToFloat(buffer.getInt());
+                case DOUBLE:
+                    return Double.longBitsToDouble(buffer.getLong());
+                case STRING:
+                    return readString();
+                case BINARY:
+                    return readBytes();
+                case LIST: {
+                    final int size = readLength();
+                    enterCollection();
+                    final List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) list.add(readValue());
+                    depth--;
+                    return list;
+                }
+                case SET: {
+                    final int size = readLength();
+                    enterCollection();
+                    final Set<Object> set = new LinkedHashSet<>((int) Math.ceil(size / 0.75));
+                    for (int i = 0; i < size; i++) set.add(readValue());
+                    if (set.size() != size) throw malformed();
+                    depth--;
+                    return set;
+                }
+                case MAP: {
+                    final int size = readLength();
+                    enterCollection();
+                    final Map<Object, Object> map = new LinkedHashMap<>(
+                            (int) Math.ceil(size / 0.75)
+                    );
+                    for (int i = 0; i < size; i++) map.put(readValue(), readValue());
+                    if (map.size() != size) throw malformed();
+                    depth--;
+                    return map;
+                }
+                default:
+                    throw malformed();
+            }
+        }
+
+        private void enterCollection() {
+            // trees nested this deep are never encoded, so the bytes must be corrupt
+            if (++depth > MAX_DEPTH) throw malformed();
+        }
+
+        private String readString() {
+            final int length = readLength();
+            if (buffer.hasArray()) {
+                final int offset = buffer.arrayOffset() + buffer.position();
+                buffer.position(buffer.position() + length);
+                return new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+            }
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes() {
+            final byte[] bytes = new byte[readLength()];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        private int readLength() {
+            // every byte and every element of a list or map occupies at least one byte,
+            // so lengths that exceed the number of remaining bytes must be corrupt
+            final long length = readUnsignedVarLong();
+            if (length > buffer.remaining()) throw malformed();
+            return (int) length;
+        }
+
+        private long readUnsignedVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                final int b = buffer.get();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw malformed();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package de.exlll.configlib;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A {@code NameFormatter} that formats each name only once and returns the cached result
+ * on subsequent calls. Formatters are only given the names of configuration elements, so
+ * the size of the cache is bounded by the number of elements of all configuration types.
+ * <p>
+ * The wrapped formatter must return the same result when given the same name.
+ */
+final class CachingNameFormatter implements NameFormatter {
+    private final NameFormatter formatter;
+    private final Map<String, String> formattedNames = new ConcurrentHashMap<>();
+
+    private CachingNameFormatter(NameFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    /**
+     * Returns a caching formatter that delegates to the given formatter. Formatters that do
+     * not need to be cached are returned as they are.
+     *
+     * @param formatter the formatter
+     * @return the caching formatter
+     * @throws NullPointerException if {@code formatter} is null
+     */
+    static NameFormatter of(NameFormatter formatter) {
+        requireNonNull(formatter, "name formatter");
+        if ((formatter == NameFormatters.IDENTITY) || (formatter instanceof CachingNameFormatter))
+            return formatter;
+        return new CachingNameFormatter(formatter);
+    }
+
+    @Override
+    public String format(String name) {
+        final String cached = formattedNames.get(name);
+        if (cached != null)
+            return cached;
+        final String formatted = formatter.format(name);
+        if (formatted != null)
+            formattedNames.putIfAbsent(name, formatted);
+        return formatted;
+    }
+}
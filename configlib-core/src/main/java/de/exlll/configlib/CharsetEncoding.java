@@ -0,0 +1,40 @@
+package de.exlll.configlib;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Encodes text directly into byte buffers, without the intermediate byte arrays that
+ * writers and output streams would require.
+ */
+final class CharsetEncoding {
+    private CharsetEncoding() {}
+
+    /**
+     * Encodes the given text into the given buffer, starting at its current position.
+     * Characters that cannot be encoded are replaced the same way an
+     * {@code OutputStreamWriter} replaces them. If the buffer does not have enough
+     * remaining space, its position is not changed.
+     *
+     * @throws BufferOverflowException if the buffer does not have enough remaining space
+     */
+    static void encode(CharSequence text, Charset charset, ByteBuffer target) {
+        final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer source = CharBuffer.wrap(text);
+        final int position = target.position();
+        CoderResult result = encoder.encode(source, target, true);
+        // errors are replaced, so the result is either an underflow or an overflow
+        if (result.isUnderflow()) result = encoder.flush(target);
+        if (result.isOverflow()) {
+            target.position(position);
+            throw new BufferOverflowException();
+        }
+    }
+}
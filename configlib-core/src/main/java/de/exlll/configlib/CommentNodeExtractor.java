@@ -3,6 +3,8 @@ package de.exlll.configlib;
 import de.exlll.configlib.ConfigurationElements.FieldElement;
 
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,17 +18,31 @@ final class CommentNodeExtractor {
 
     CommentNodeExtractor(ConfigurationProperties properties) {
         this.fieldFilter = requireNonNull(properties.getFieldFilter(), "field filter");
-        this.nameFormatter = requireNonNull(properties.getNameFormatter(), "name formatter");
+        this.nameFormatter = requireNonNull(properties.getCachingNameFormatter(), "name formatter");
         this.outputNull = properties.outputNulls();
     }
 
     private static class State {
         private final Iterator<? extends ConfigurationElement<?>> iterator;
         private final Object elementHolder;
+        /**
+         * Whether the element holder is the serialized form of a configuration whose
+         * {@code Lazy} holder has not been loaded yet.
+         */
+        private final boolean serialized;
 
         public State(Iterator<? extends ConfigurationElement<?>> iterator, Object elementHolder) {
+            this(iterator, elementHolder, false);
+        }
+
+        public State(
+                Iterator<? extends ConfigurationElement<?>> iterator,
+                Object elementHolder,
+                boolean serialized
+        ) {
             this.iterator = iterator;
             this.elementHolder = elementHolder;
+            this.serialized = serialized;
         }
 
         public Iterator<? extends ConfigurationElement<?>> iterator() {
@@ -49,9 +65,34 @@ final class CommentNodeExtractor {
      */
     public Queue<CommentNode> extractCommentNodes(final Object elementHolder) {
         requireConfigurationType(elementHolder.getClass());
+        return extractCommentNodes(stateFromObject(elementHolder));
+    }
+
+    /**
+     * Extracts {@code CommentNode}s of the given configuration type from the serialized
+     * form of one of its instances. Unlike {@link #extractCommentNodes(Object)}, this
+     * method doesn't access the configuration object, so it can be called on some other
+     * thread than the one that serialized the configuration.
+     *
+     * @param configurationType       the type of the serialized configuration
+     * @param serializedConfiguration the serialized configuration
+     * @return the nodes in the order in which they are found
+     * @throws IllegalArgumentException if {@code configurationType} is not a configuration type
+     * @throws NullPointerException     if any argument is null
+     */
+    Queue<CommentNode> extractCommentNodes(
+            final Class<?> configurationType,
+            final Map<?, ?> serializedConfiguration
+    ) {
+        requireConfigurationType(configurationType);
+        requireNonNull(serializedConfiguration, "serialized configuration");
+        return extractCommentNodes(stateFromSerialized(configurationType, serializedConfiguration));
+    }
+
+    private Queue<CommentNode> extractCommentNodes(final State initialState) {
         final Queue<CommentNode> result = new ArrayDeque<>();
         final ArrayDeque<String> elementNameStack = new ArrayDeque<>(Collections.singletonList(""));
-        final ArrayDeque<State> stateStack = new ArrayDeque<>(Collections.singletonList(stateFromObject(elementHolder)));
+        final ArrayDeque<State> stateStack = new ArrayDeque<>(Collections.singletonList(initialState));
 
         State state;
         while (!stateStack.isEmpty()) {
@@ -60,7 +101,7 @@ final class CommentNodeExtractor {
 
             while (state.iterator.hasNext()) {
                 final ConfigurationElement<?> element = state.iterator.next();
-                final Object elementValue = element.value(state.elementHolder);
+                final Object elementValue = valueOf(element, state);
 
                 if ((elementValue == null) && !outputNull)
                     continue;
@@ -73,11 +114,11 @@ final class CommentNodeExtractor {
                 );
                 commentNode.ifPresent(result::add);
 
-                final Class<?> elementType = element.type();
-                if ((elementValue != null) && Reflect.isConfigurationType(elementType)) {
+                final State nestedState = nestedState(element, elementValue, state.serialized);
+                if (nestedState != null) {
                     stateStack.addLast(state);
                     elementNameStack.addLast(nameFormatter.format(elementName));
-                    state = stateFromObject(elementValue);
+                    state = nestedState;
                 }
             }
         }
@@ -85,12 +126,96 @@ final class CommentNodeExtractor {
         return result;
     }
 
+    private Object valueOf(ConfigurationElement<?> element, State state) {
+        if (!state.serialized)
+            return element.value(state.elementHolder);
+        final Map<?, ?> serializedConfiguration = (Map<?, ?>) state.elementHolder;
+        return serializedConfiguration.get(nameFormatter.format(element.name()));
+    }
+
+    private State nestedState(
+            ConfigurationElement<?> element,
+            Object elementValue,
+            boolean serialized
+    ) {
+        if (elementValue == null)
+            return null;
+
+        final Class<?> elementType = element.type();
+        if (Reflect.isConfigurationType(elementType)) {
+            return serialized
+                    ? stateFromSerialized(elementType, elementValue)
+                    : stateFromObject(elementValue);
+        }
+
+        if (elementType != Lazy.class)
+            return null;
+        final Class<?> valueType = lazyValueType(element);
+        if ((valueType == null) || !Reflect.isConfigurationType(valueType))
+            return null;
+        if (serialized)
+            return stateFromSerialized(valueType, elementValue);
+
+        final Lazy<?> lazy = (Lazy<?>) elementValue;
+        final Object serializedValue = lazy.serialized();
+        return (serializedValue != null)
+                ? stateFromSerialized(valueType, serializedValue)
+                : stateFromObject(lazy.get());
+    }
+
+    private static Class<?> lazyValueType(ConfigurationElement<?> element) {
+        final Type type = element.annotatedType().getType();
+        if (!(type instanceof ParameterizedType))
+            return null;
+        final Type valueType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        return (valueType instanceof Class<?>) ? (Class<?>) valueType : null;
+    }
+
     private State stateFromObject(final Object elementHolder) {
         final Class<?> type = elementHolder.getClass();
         final Iterator<FieldElement> iter = fieldElements(elementHolder);
         return new State(iter, elementHolder);
     }
 
+    private State stateFromSerialized(final Class<?> type, final Object serializedValue) {
+        // values that are not maps are invalid and contain no nested elements
+        if (!(serializedValue instanceof Map<?, ?>))
+            return null;
+        final Class<?> actualType = serializedTypeOf(type, (Map<?, ?>) serializedValue);
+        final Iterator<FieldElement> iter = fieldElements(actualType);
+        return new State(iter, serializedValue, true);
+    }
+
+    /**
+     * Returns the subtype that is stored in the serialized value if the given type is
+     * polymorphic, or the given type otherwise. Unknown subtypes are treated like the
+     * given type, the same way values that are not maps are treated as invalid.
+     */
+    private static Class<?> serializedTypeOf(Class<?> type, Map<?, ?> serializedValue) {
+        final Polymorphic polymorphic = type.getAnnotation(Polymorphic.class);
+        if (polymorphic == null)
+            return type;
+        final Object typeIdentifier = serializedValue.get(polymorphic.property());
+        if (!(typeIdentifier instanceof String))
+            return type;
+        final PolymorphicTypes polymorphicTypes = type.getAnnotation(PolymorphicTypes.class);
+        if (polymorphicTypes != null) {
+            for (PolymorphicTypes.Type polymorphicType : polymorphicTypes.value()) {
+                final String alias = polymorphicType.alias().isEmpty()
+                        ? polymorphicType.type().getName()
+                        : polymorphicType.alias();
+                if (alias.equals(typeIdentifier))
+                    return polymorphicType.type();
+            }
+        }
+        try {
+            final Class<?> result = Reflect.getClassByName((String) typeIdentifier);
+            return type.isAssignableFrom(result) ? result : type;
+        } catch (RuntimeException e) {
+            return type;
+        }
+    }
+
     private Optional<CommentNode> createNodeIfCommentPresent(
             final AnnotatedElement element,
             final String elementName,
@@ -110,7 +235,11 @@ final class CommentNodeExtractor {
     }
 
     private Iterator<FieldElement> fieldElements(Object configuration) {
-        return FieldExtractors.CONFIGURATION.extract(configuration.getClass())
+        return fieldElements(configuration.getClass());
+    }
+
+    private Iterator<FieldElement> fieldElements(Class<?> configurationType) {
+        return FieldExtractors.CONFIGURATION.extract(configurationType)
                 .filter(fieldFilter)
                 .map(FieldElement::new)
                 .iterator();
@@ -2,10 +2,14 @@ package de.exlll.configlib;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 
@@ -13,6 +17,11 @@ import static de.exlll.configlib.Validator.requireNonNull;
 
 /**
  * A collection of values used to configure the serialization of configurations.
+ * <p>
+ * Instances of this class are immutable. Properties objects that are derived from another
+ * one via {@link #toBuilder()} share all maps that have not been modified with it, as well
+ * as the caches that depend on these maps. Two properties objects are equal if they are of
+ * the same class and all of their values are equal.
  */
 public class ConfigurationProperties {
     private final Map<Class<?>, Serializer<?, ?>>
@@ -23,11 +32,34 @@ public class ConfigurationProperties {
             serializersByCondition;
     private final Map<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>>
             postProcessorsByCondition;
+    private final Map<Class<?>, IntFunction<?>>
+            collectionFactoriesByType;
     private final NameFormatter formatter;
+    private final NameFormatter cachingFormatter;
     private final FieldFilter filter;
+    private final StringPool stringPool;
+    private final BiConsumer<? super Class<?>, ? super Set<String>> unknownKeysHandler;
     private final boolean outputNulls;
     private final boolean inputNulls;
     private final boolean serializeSetsAsLists;
+    private final boolean serializeMapKeysAsStrings;
+    private final boolean serializePrimitiveArraysAsBinary;
+    private final boolean caseInsensitiveEnums;
+    private final boolean useEnumCollections;
+    private final boolean unmodifiableCollections;
+    private final boolean cloneDefaultInstances;
+    private final boolean parallelDeserialization;
+    private final int parallelDeserializationThreshold;
+    /**
+     * Caches the custom serializer lookups of the {@link SerializerSelector} for classes,
+     * which only depend on the looked up class and the values of this object. Properties
+     * are often kept in static fields, so the cache must not prevent the classes it has
+     * seen (and their class loaders) from being unloaded, which a {@code ClassValue}
+     * guarantees.
+     */
+    private final ClassValue<SerializerSelector.CustomSerializerLookup>
+            customSerializerLookups;
+    private int hashCode;
 
     /**
      * Constructs a new instance of this class with values taken from the given builder.
@@ -36,19 +68,63 @@ public class ConfigurationProperties {
      * @throws NullPointerException if the builder or any of its values is null
      */
     protected ConfigurationProperties(Builder<?> builder) {
-        this.serializersByType = new HashMap<>(builder.serializersByType);
-        this.serializerFactoriesByType = new HashMap<>(builder.serializerFactoriesByType);
-        this.serializersByCondition = Collections.unmodifiableMap(
-                new LinkedHashMap<>(builder.serializersByCondition)
-        );
-        this.postProcessorsByCondition = Collections.unmodifiableMap(
-                new LinkedHashMap<>(builder.postProcessorsByCondition)
-        );
+        final ConfigurationProperties source = builder.source;
+        this.serializersByType =
+                toUnmodifiableMap(builder.serializersByType, builder.serializersByTypeOwned);
+        this.serializerFactoriesByType =
+                toUnmodifiableMap(builder.serializerFactoriesByType, builder.serializerFactoriesByTypeOwned);
+        this.serializersByCondition =
+                toUnmodifiableMap(builder.serializersByCondition, builder.serializersByConditionOwned);
+        this.postProcessorsByCondition =
+                toUnmodifiableMap(builder.postProcessorsByCondition, builder.postProcessorsByConditionOwned);
+        this.collectionFactoriesByType =
+                toUnmodifiableMap(builder.collectionFactoriesByType, builder.collectionFactoriesByTypeOwned);
+        this.customSerializerLookups = (source != null) &&
+                                       (serializersByType == source.serializersByType) &&
+                                       (serializerFactoriesByType == source.serializerFactoriesByType) &&
+                                       (serializersByCondition == source.serializersByCondition)
+                ? source.customSerializerLookups
+                : newCustomSerializerLookups(this);
         this.formatter = requireNonNull(builder.formatter, "name formatter");
+        this.cachingFormatter = (source != null) && (formatter == source.formatter)
+                ? source.cachingFormatter
+                : CachingNameFormatter.of(formatter);
         this.filter = requireNonNull(builder.filter, "field filter");
+        this.stringPool = builder.stringPool;
+        this.unknownKeysHandler = builder.unknownKeysHandler;
         this.outputNulls = builder.outputNulls;
         this.inputNulls = builder.inputNulls;
         this.serializeSetsAsLists = builder.serializeSetsAsLists;
+        this.serializeMapKeysAsStrings = builder.serializeMapKeysAsStrings;
+        this.serializePrimitiveArraysAsBinary = builder.serializePrimitiveArraysAsBinary;
+        this.caseInsensitiveEnums = builder.caseInsensitiveEnums;
+        this.useEnumCollections = builder.useEnumCollections;
+        this.unmodifiableCollections = builder.unmodifiableCollections;
+        this.cloneDefaultInstances = builder.cloneDefaultInstances;
+        this.parallelDeserialization = builder.parallelDeserialization;
+        this.parallelDeserializationThreshold = builder.parallelDeserializationThreshold;
+    }
+
+    private static ClassValue<SerializerSelector.CustomSerializerLookup>
+    newCustomSerializerLookups(ConfigurationProperties properties) {
+        return new ClassValue<SerializerSelector.CustomSerializerLookup>() {
+            @Override
+            protected SerializerSelector.CustomSerializerLookup computeValue(Class<?> type) {
+                return SerializerSelector.findCustomSerializer(properties, type);
+            }
+        };
+    }
+
+    /**
+     * Returns the given map if it is shared with some other properties object, or an
+     * unmodifiable copy of it if it is owned by a builder.
+     */
+    private static <K, V> Map<K, V> toUnmodifiableMap(Map<K, V> map, boolean ownedByBuilder) {
+        if (!ownedByBuilder)
+            return map;
+        return map.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(map));
     }
 
     /**
@@ -87,32 +163,68 @@ public class ConfigurationProperties {
      * @param <B> the type of builder
      */
     public static abstract class Builder<B extends Builder<B>> {
-        private final Map<Class<?>, Serializer<?, ?>>
-                serializersByType = new HashMap<>();
-        private final Map<Class<?>, Function<? super SerializerContext, ? extends Serializer<?, ?>>>
-                serializerFactoriesByType = new HashMap<>();
-        private final Map<Predicate<? super Type>, Serializer<?, ?>>
-                serializersByCondition = new LinkedHashMap<>();
-        private final Map<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>>
-                postProcessorsByCondition = new LinkedHashMap<>();
+        // The following maps are either unmodifiable maps shared with a properties
+        // object or mutable copies owned by this builder. A map is copied the first
+        // time it is modified, after which its Owned flag is set.
+        private Map<Class<?>, Serializer<?, ?>>
+                serializersByType = Collections.emptyMap();
+        private Map<Class<?>, Function<? super SerializerContext, ? extends Serializer<?, ?>>>
+                serializerFactoriesByType = Collections.emptyMap();
+        private Map<Predicate<? super Type>, Serializer<?, ?>>
+                serializersByCondition = Collections.emptyMap();
+        private Map<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>>
+                postProcessorsByCondition = Collections.emptyMap();
+        private Map<Class<?>, IntFunction<?>>
+                collectionFactoriesByType = Collections.emptyMap();
+        private boolean serializersByTypeOwned = false;
+        private boolean serializerFactoriesByTypeOwned = false;
+        private boolean serializersByConditionOwned = false;
+        private boolean postProcessorsByConditionOwned = false;
+        private boolean collectionFactoriesByTypeOwned = false;
+        /**
+         * The properties object this builder was initialized with, or null.
+         */
+        private ConfigurationProperties source = null;
         private NameFormatter formatter = NameFormatters.IDENTITY;
         private FieldFilter filter = FieldFilters.DEFAULT;
+        private StringPool stringPool = null;
+        private BiConsumer<? super Class<?>, ? super Set<String>> unknownKeysHandler = null;
         private boolean outputNulls = false;
         private boolean inputNulls = false;
         private boolean serializeSetsAsLists = true;
+        private boolean serializeMapKeysAsStrings = false;
+        private boolean serializePrimitiveArraysAsBinary = false;
+        private boolean caseInsensitiveEnums = false;
+        private boolean useEnumCollections = false;
+        private boolean unmodifiableCollections = false;
+        private boolean cloneDefaultInstances = false;
+        private boolean parallelDeserialization = false;
+        private int parallelDeserializationThreshold = 1000;
 
         protected Builder() {}
 
         protected Builder(ConfigurationProperties properties) {
-            this.serializersByType.putAll(properties.serializersByType);
-            this.serializerFactoriesByType.putAll(properties.serializerFactoriesByType);
-            this.serializersByCondition.putAll(properties.serializersByCondition);
-            this.postProcessorsByCondition.putAll(properties.postProcessorsByCondition);
+            this.serializersByType = properties.serializersByType;
+            this.serializerFactoriesByType = properties.serializerFactoriesByType;
+            this.serializersByCondition = properties.serializersByCondition;
+            this.postProcessorsByCondition = properties.postProcessorsByCondition;
+            this.collectionFactoriesByType = properties.collectionFactoriesByType;
+            this.source = properties;
             this.formatter = properties.formatter;
             this.filter = properties.filter;
+            this.stringPool = properties.stringPool;
+            this.unknownKeysHandler = properties.unknownKeysHandler;
             this.outputNulls = properties.outputNulls;
             this.inputNulls = properties.inputNulls;
             this.serializeSetsAsLists = properties.serializeSetsAsLists;
+            this.serializeMapKeysAsStrings = properties.serializeMapKeysAsStrings;
+            this.serializePrimitiveArraysAsBinary = properties.serializePrimitiveArraysAsBinary;
+            this.caseInsensitiveEnums = properties.caseInsensitiveEnums;
+            this.useEnumCollections = properties.useEnumCollections;
+            this.unmodifiableCollections = properties.unmodifiableCollections;
+            this.cloneDefaultInstances = properties.cloneDefaultInstances;
+            this.parallelDeserialization = properties.parallelDeserialization;
+            this.parallelDeserializationThreshold = properties.parallelDeserializationThreshold;
         }
 
         /**
@@ -142,6 +254,48 @@ public class ConfigurationProperties {
             return getThis();
         }
 
+        /**
+         * Sets the pool used to deduplicate the strings of deserialized configurations.
+         * If a pool is set, all deserialized {@code String} values, including map keys,
+         * are replaced by the equal string in the pool. This reduces the memory used by
+         * configurations in which the same strings occur many times.
+         * <p>
+         * The same pool can be used by any number of configuration stores, for example,
+         * the {@link StringPool#shared() shared} pool.
+         * <p>
+         * The default value is null, which means that strings are not deduplicated.
+         *
+         * @param stringPool the pool or null
+         * @return this builder
+         */
+        public final B setStringPool(StringPool stringPool) {
+            this.stringPool = stringPool;
+            return getThis();
+        }
+
+        /**
+         * Sets the handler that is notified about keys of a serialized configuration that do
+         * not belong to any of its configuration elements. Such keys are ignored while
+         * deserializing the configuration, so this handler can be used to warn about
+         * misspelled keys or keys that are no longer used.
+         * <p>
+         * The handler is called at most once per deserialized configuration or nested
+         * configuration. It is given the type of that configuration and the unknown keys,
+         * converted to strings. Type properties of {@link Polymorphic} configurations are
+         * not reported.
+         * <p>
+         * The default value is null, which means that unknown keys are not collected.
+         *
+         * @param handler the handler or null
+         * @return this builder
+         */
+        public final B setUnknownKeysHandler(
+                BiConsumer<? super Class<?>, ? super Set<String>> handler
+        ) {
+            this.unknownKeysHandler = handler;
+            return getThis();
+        }
+
         /**
          * Adds a serializer for the given type.
          * <p>
@@ -165,6 +319,10 @@ public class ConfigurationProperties {
         ) {
             requireNonNull(serializedType, "serialized type");
             requireNonNull(serializer, "serializer");
+            if (!serializersByTypeOwned) {
+                serializersByType = new LinkedHashMap<>(serializersByType);
+                serializersByTypeOwned = true;
+            }
             serializersByType.put(serializedType, serializer);
             return getThis();
         }
@@ -193,6 +351,10 @@ public class ConfigurationProperties {
         ) {
             requireNonNull(serializedType, "serialized type");
             requireNonNull(serializerFactory, "serializer factory");
+            if (!serializerFactoriesByTypeOwned) {
+                serializerFactoriesByType = new LinkedHashMap<>(serializerFactoriesByType);
+                serializerFactoriesByTypeOwned = true;
+            }
             serializerFactoriesByType.put(serializedType, serializerFactory);
             return getThis();
         }
@@ -214,6 +376,10 @@ public class ConfigurationProperties {
         ) {
             requireNonNull(condition, "condition");
             requireNonNull(serializer, "serializer");
+            if (!serializersByConditionOwned) {
+                serializersByCondition = new LinkedHashMap<>(serializersByCondition);
+                serializersByConditionOwned = true;
+            }
             serializersByCondition.put(condition, serializer);
             return getThis();
         }
@@ -222,7 +388,9 @@ public class ConfigurationProperties {
          * Defines a post-processor for each configuration element that fulfils
          * the given condition. Multiple post-processors are applied if an
          * element fulfills more than one condition. The conditions are checked
-         * in the order in which they were added.
+         * in the order in which they were added. They are checked only once per
+         * configuration element, when the serializer of its configuration type is
+         * created, and must therefore not depend on any other state.
          * <p>
          * <b>NOTE</b>:
          * It is the developer's responsibility to ensure that the type of the
@@ -241,7 +409,179 @@ public class ConfigurationProperties {
         ) {
             requireNonNull(condition, "condition");
             requireNonNull(postProcessor, "post-processor");
-            this.postProcessorsByCondition.put(condition, postProcessor);
+            if (!postProcessorsByConditionOwned) {
+                postProcessorsByCondition = new LinkedHashMap<>(postProcessorsByCondition);
+                postProcessorsByConditionOwned = true;
+            }
+            postProcessorsByCondition.put(condition, postProcessor);
+            return getThis();
+        }
+
+        /**
+         * Adds a factory that creates the lists, sets, or maps of the given type that are
+         * filled while deserializing a configuration. The factory is applied to the number
+         * of elements the list, set, or map is going to hold.
+         * <p>
+         * The factory is selected for configuration elements (or nested types) whose
+         * declared raw type equals {@code collectionType}. This allows, for example, using
+         * a different {@code List} implementation for all elements that are declared as
+         * {@code List}, or providing an implementation for a custom (or primitive-specialized)
+         * collection type. Factories added by this method take precedence over the ones
+         * this library selects by default.
+         * <p>
+         * <b>NOTE</b>:
+         * It is the developer's responsibility to ensure that the objects created by the
+         * factory are instances of {@code collectionType}.
+         *
+         * @param collectionType the type of list, set, or map the factory creates
+         * @param factory        the factory
+         * @param <T>            the type of list, set, or map the factory creates
+         * @return this builder
+         * @throws IllegalArgumentException if {@code collectionType} is not a list, set, or map type
+         * @throws NullPointerException     if any argument is null
+         */
+        public final <T> B addCollectionFactory(
+                Class<T> collectionType,
+                IntFunction<? extends T> factory
+        ) {
+            requireNonNull(collectionType, "collection type");
+            requireNonNull(factory, "collection factory");
+            if (!Reflect.isListType(collectionType) &&
+                !Reflect.isSetType(collectionType) &&
+                !Reflect.isMapType(collectionType)) {
+                String msg = "Class " + collectionType.getSimpleName() + " is not a list, " +
+                             "set, or map type.";
+                throw new IllegalArgumentException(msg);
+            }
+            if (!collectionFactoriesByTypeOwned) {
+                collectionFactoriesByType = new LinkedHashMap<>(collectionFactoriesByType);
+                collectionFactoriesByTypeOwned = true;
+            }
+            collectionFactoriesByType.put(collectionType, factory);
+            return getThis();
+        }
+
+        /**
+         * Sets whether configuration elements declared as {@code Set} whose elements are
+         * enums should be deserialized into {@code EnumSet}s and whether elements declared
+         * as {@code Map} whose keys are enums should be deserialized into {@code EnumMap}s.
+         * Both types are considerably faster and more compact than their hash-based
+         * counterparts. Note that the iteration order of an {@code EnumMap} is the order
+         * in which the enum constants are declared and not the insertion order.
+         * <p>
+         * Because these types don't allow null elements or keys, this option has no effect
+         * if null values are allowed as input.
+         * <p>
+         * Configuration elements that are declared as {@code EnumSet} or {@code EnumMap}
+         * are always deserialized into these types.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param useEnumCollections whether to use {@code EnumSet}s and {@code EnumMap}s
+         * @return this builder
+         */
+        public final B useEnumCollections(boolean useEnumCollections) {
+            this.useEnumCollections = useEnumCollections;
+            return getThis();
+        }
+
+        /**
+         * Sets whether configuration elements declared as {@code List}, {@code Set}, or
+         * {@code Map} should be deserialized into unmodifiable collections. Empty and
+         * single-element collections are represented by compact immutable implementations.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param unmodifiableCollections whether to deserialize unmodifiable collections
+         * @return this builder
+         */
+        public final B unmodifiableCollections(boolean unmodifiableCollections) {
+            this.unmodifiableCollections = unmodifiableCollections;
+            return getThis();
+        }
+
+        /**
+         * Sets whether new instances of configuration types should be created by cloning an
+         * instance that has been created once with the no-args constructor, instead of
+         * calling the no-args constructor for each deserialized configuration. This is
+         * useful for configuration types whose constructors are expensive.
+         * <p>
+         * This option only applies to configuration types that implement {@link Cloneable}
+         * and override {@link Object#clone()}. Other configuration types are still
+         * instantiated with their no-args constructor. Since the values of all
+         * configuration elements are set after an instance has been created, only the
+         * values of fields that are not configuration elements (e.g. {@code transient}
+         * fields) are copied from the cloned instance. If {@code clone} is not overridden
+         * to do otherwise, these values are shared by all instances.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param cloneDefaultInstances whether to create instances by cloning
+         * @return this builder
+         */
+        public final B cloneDefaultInstances(boolean cloneDefaultInstances) {
+            this.cloneDefaultInstances = cloneDefaultInstances;
+            return getThis();
+        }
+
+        /**
+         * Sets whether configurations should be deserialized in parallel using the common
+         * {@code ForkJoinPool}. If this option is enabled, the elements of large collections,
+         * maps, and arrays, as well as independent nested configurations of the same
+         * configuration, are deserialized concurrently.
+         * <p>
+         * Parallel deserialization only pays off for large configurations. The nested
+         * configurations, collections, maps, and arrays of a configuration are only
+         * deserialized concurrently if they contain at least as many entries in total as
+         * the {@linkplain #parallelDeserializationThreshold(int) threshold}.
+         * <p>
+         * Configurations are also deserialized in parallel if they are loaded by a thread
+         * of the common {@code ForkJoinPool}, for example in a task passed to
+         * {@code CompletableFuture.supplyAsync}. In that case, the loading thread takes
+         * part in the work instead of waiting idly. Only the configurations nested in a
+         * configuration that is already being deserialized in parallel are deserialized
+         * sequentially, because the work has already been split up.
+         * <p>
+         * If this option is enabled, user code is called from worker threads of the common
+         * {@code ForkJoinPool} instead of the thread that loads the configuration, possibly
+         * concurrently. This applies to custom serializers and serializer factories,
+         * post-processors (including {@link PostProcess} methods), and the
+         * {@linkplain #setUnknownKeysHandler(BiConsumer) unknown keys handler}. All of them
+         * must therefore be thread-safe and must not depend on being called from a specific
+         * thread (e.g. the main thread of a server).
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param parallelDeserialization whether to deserialize configurations in parallel
+         * @return this builder
+         * @see #parallelDeserializationThreshold(int)
+         */
+        public final B parallelDeserialization(boolean parallelDeserialization) {
+            this.parallelDeserialization = parallelDeserialization;
+            return getThis();
+        }
+
+        /**
+         * Sets the minimum number of elements a collection, map, or array must have to be
+         * deserialized in parallel. The nested configurations, collections, maps, and
+         * arrays of a configuration must together have at least this many entries to be
+         * deserialized concurrently. This option has no effect unless parallel
+         * deserialization is enabled.
+         * <p>
+         * The default value is {@code 1000}.
+         *
+         * @param threshold the minimum number of elements
+         * @return this builder
+         * @throws IllegalArgumentException if {@code threshold} is less than 1
+         * @see #parallelDeserialization(boolean)
+         */
+        public final B parallelDeserializationThreshold(int threshold) {
+            if (threshold < 1) {
+                String msg = "The parallel deserialization threshold must be positive but was " +
+                             threshold + ".";
+                throw new IllegalArgumentException(msg);
+            }
+            this.parallelDeserializationThreshold = threshold;
             return getThis();
         }
 
@@ -289,6 +629,61 @@ public class ConfigurationProperties {
             return getThis();
         }
 
+        /**
+         * Sets whether the keys of maps whose key type is a boolean or number type should
+         * be serialized as strings. This is required by formats whose object keys are
+         * always strings, so that the keys can be converted back to their type.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param serializeMapKeysAsStrings whether to serialize boolean and number map
+         *                                  keys as strings
+         * @return this builder
+         */
+        final B serializeMapKeysAsStrings(boolean serializeMapKeysAsStrings) {
+            this.serializeMapKeysAsStrings = serializeMapKeysAsStrings;
+            return getThis();
+        }
+
+        /**
+         * Sets whether arrays of primitive type (e.g. {@code int[]}) should be serialized as
+         * compact binary data instead of as lists of their elements.
+         * <p>
+         * Integral elements are delta and varint encoded, which makes large numeric arrays
+         * considerably smaller and faster to read and write. YAML configurations store the
+         * binary data as base64 encoded {@code !!binary} scalars.
+         * <p>
+         * Arrays that have been serialized as lists can still be deserialized when this
+         * option is enabled.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param serializePrimitiveArraysAsBinary whether to serialize primitive arrays as
+         *                                         binary data
+         * @return this builder
+         */
+        public final B serializePrimitiveArraysAsBinary(boolean serializePrimitiveArraysAsBinary) {
+            this.serializePrimitiveArraysAsBinary = serializePrimitiveArraysAsBinary;
+            return getThis();
+        }
+
+        /**
+         * Sets whether enum constants should be matched case-insensitively while
+         * deserializing the configuration. If this option is enabled, a value that does
+         * not exactly match the name of any constant is matched against the names of
+         * all constants, ignoring case. Names of constants that only differ in case
+         * still need to match exactly.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param caseInsensitiveEnums whether to match enum constants case-insensitively
+         * @return this builder
+         */
+        public final B caseInsensitiveEnums(boolean caseInsensitiveEnums) {
+            this.caseInsensitiveEnums = caseInsensitiveEnums;
+            return getThis();
+        }
+
         /**
          * Builds a {@code ConfigurationProperties} instance.
          *
@@ -322,6 +717,37 @@ public class ConfigurationProperties {
         return formatter;
     }
 
+    /**
+     * Returns a formatter that caches the names formatted by the name formatter. This
+     * formatter is used internally so that the name of each configuration element is
+     * formatted only once.
+     *
+     * @return the caching formatter
+     */
+    final NameFormatter getCachingNameFormatter() {
+        return cachingFormatter;
+    }
+
+    /**
+     * Returns the pool used to deduplicate the strings of deserialized configurations,
+     * or null, if strings are not deduplicated.
+     *
+     * @return the string pool or null
+     */
+    public final StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Returns the handler that is notified about unknown keys of serialized configurations,
+     * or null, if unknown keys are not collected.
+     *
+     * @return the handler or null
+     */
+    public final BiConsumer<? super Class<?>, ? super Set<String>> getUnknownKeysHandler() {
+        return unknownKeysHandler;
+    }
+
     /**
      * Returns an unmodifiable map of serializers by type. The serializers returned by this
      * method take precedence over any default serializers provided by this library.
@@ -352,6 +778,15 @@ public class ConfigurationProperties {
         return serializersByCondition;
     }
 
+    /**
+     * Returns the cache of custom serializer lookups by class.
+     *
+     * @return custom serializer lookups by class
+     */
+    final ClassValue<SerializerSelector.CustomSerializerLookup> getCustomSerializerLookups() {
+        return customSerializerLookups;
+    }
+
     /**
      * Returns an unmodifiable map of post-processors by condition.
      *
@@ -362,6 +797,15 @@ public class ConfigurationProperties {
         return postProcessorsByCondition;
     }
 
+    /**
+     * Returns an unmodifiable map of collection factories by type.
+     *
+     * @return collection factories by type
+     */
+    public final Map<Class<?>, IntFunction<?>> getCollectionFactories() {
+        return collectionFactoriesByType;
+    }
+
     /**
      * Returns whether null values should be output.
      *
@@ -388,4 +832,150 @@ public class ConfigurationProperties {
     final boolean serializeSetsAsLists() {
         return serializeSetsAsLists;
     }
+
+    /**
+     * Returns whether boolean and number map keys should be serialized as strings.
+     *
+     * @return whether to serialize boolean and number map keys as strings
+     */
+    final boolean serializeMapKeysAsStrings() {
+        return serializeMapKeysAsStrings;
+    }
+
+    /**
+     * Returns whether arrays of primitive type should be serialized as binary data.
+     *
+     * @return whether to serialize primitive arrays as binary data
+     */
+    public final boolean serializePrimitiveArraysAsBinary() {
+        return serializePrimitiveArraysAsBinary;
+    }
+
+    /**
+     * Returns whether enum constants should be matched case-insensitively.
+     *
+     * @return whether to match enum constants case-insensitively
+     */
+    public final boolean caseInsensitiveEnums() {
+        return caseInsensitiveEnums;
+    }
+
+    /**
+     * Returns whether {@code EnumSet}s and {@code EnumMap}s should be used for sets of
+     * enums and maps with enum keys.
+     *
+     * @return whether to use {@code EnumSet}s and {@code EnumMap}s
+     */
+    public final boolean useEnumCollections() {
+        return useEnumCollections;
+    }
+
+    /**
+     * Returns whether lists, sets, and maps should be deserialized into unmodifiable
+     * collections.
+     *
+     * @return whether to deserialize unmodifiable collections
+     */
+    public final boolean unmodifiableCollections() {
+        return unmodifiableCollections;
+    }
+
+    /**
+     * Returns whether new instances of configuration types should be created by cloning.
+     *
+     * @return whether to create instances by cloning
+     */
+    public final boolean cloneDefaultInstances() {
+        return cloneDefaultInstances;
+    }
+
+    /**
+     * Returns whether configurations should be deserialized in parallel.
+     *
+     * @return whether to deserialize configurations in parallel
+     */
+    public final boolean parallelDeserialization() {
+        return parallelDeserialization;
+    }
+
+    /**
+     * Returns the minimum number of elements a collection, map, or array must have to be
+     * deserialized in parallel.
+     *
+     * @return the minimum number of elements
+     */
+    public final int getParallelDeserializationThreshold() {
+        return parallelDeserializationThreshold;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if ((o == null) || (getClass() != o.getClass())) return false;
+        final ConfigurationProperties other = (ConfigurationProperties) o;
+        return (hashCode() == other.hashCode()) &&
+               (outputNulls == other.outputNulls) &&
+               (inputNulls == other.inputNulls) &&
+               (serializeSetsAsLists == other.serializeSetsAsLists) &&
+               (serializeMapKeysAsStrings == other.serializeMapKeysAsStrings) &&
+               (serializePrimitiveArraysAsBinary == other.serializePrimitiveArraysAsBinary) &&
+               (caseInsensitiveEnums == other.caseInsensitiveEnums) &&
+               (useEnumCollections == other.useEnumCollections) &&
+               (unmodifiableCollections == other.unmodifiableCollections) &&
+               (cloneDefaultInstances == other.cloneDefaultInstances) &&
+               (parallelDeserialization == other.parallelDeserialization) &&
+               (parallelDeserializationThreshold == other.parallelDeserializationThreshold) &&
+               formatter.equals(other.formatter) &&
+               filter.equals(other.filter) &&
+               Objects.equals(stringPool, other.stringPool) &&
+               Objects.equals(unknownKeysHandler, other.unknownKeysHandler) &&
+               serializersByType.equals(other.serializersByType) &&
+               serializerFactoriesByType.equals(other.serializerFactoriesByType) &&
+               collectionFactoriesByType.equals(other.collectionFactoriesByType) &&
+               // the order of conditions matters
+               orderedEquals(serializersByCondition, other.serializersByCondition) &&
+               orderedEquals(postProcessorsByCondition, other.postProcessorsByCondition);
+    }
+
+    private static boolean orderedEquals(Map<?, ?> map1, Map<?, ?> map2) {
+        if (map1 == map2) return true;
+        if (map1.size() != map2.size()) return false;
+        final Iterator<? extends Map.Entry<?, ?>> iterator = map2.entrySet().iterator();
+        for (final Map.Entry<?, ?> entry : map1.entrySet()) {
+            if (!entry.equals(iterator.next())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // properties objects are immutable, so the hash code only needs to be computed once
+        int result = hashCode;
+        if (result == 0) {
+            result = Objects.hash(
+                    serializersByType,
+                    serializerFactoriesByType,
+                    serializersByCondition,
+                    postProcessorsByCondition,
+                    collectionFactoriesByType,
+                    formatter,
+                    filter,
+                    stringPool,
+                    unknownKeysHandler,
+                    outputNulls,
+                    inputNulls,
+                    serializeSetsAsLists,
+                    serializeMapKeysAsStrings,
+                    serializePrimitiveArraysAsBinary,
+                    caseInsensitiveEnums,
+                    useEnumCollections,
+                    unmodifiableCollections,
+                    cloneDefaultInstances,
+                    parallelDeserialization,
+                    parallelDeserializationThreshold
+            );
+            hashCode = result;
+        }
+        return result;
+    }
 }
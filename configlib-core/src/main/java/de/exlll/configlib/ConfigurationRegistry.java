@@ -0,0 +1,376 @@
+package de.exlll.configlib;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A registry of named configurations that are loaded and reloaded concurrently using
+ * an {@code Executor}.
+ * <p>
+ * Configurations are registered together with the store and the file they are loaded with.
+ * Loading a configuration {@link FileConfigurationStore#update(Path) updates} its file.
+ * Because loading is done by the executor of this registry, configurations that are
+ * registered by different plugins are loaded in parallel. The results of loading
+ * configurations contain the time it took to load each of them.
+ * <p>
+ * Registered configurations are loaded for the first time once {@link #loadAll()} is
+ * called, which is usually done by the plugin that owns the registry when it is enabled.
+ * Configurations registered after that are loaded as soon as they are registered. Callers
+ * that need the loaded configurations can wait on {@link #initialLoad()} or on
+ * {@link Entry#initialLoad()}.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class ConfigurationRegistry {
+    private final Executor executor;
+    private final Map<String, Entry<?>> entries = new LinkedHashMap<>();
+    private final CompletableFuture<List<ReloadResult>> initialLoad = new CompletableFuture<>();
+    private boolean loadStarted = false;
+
+    /**
+     * Constructs a new, empty registry that loads configurations using the given executor.
+     *
+     * @param executor the executor
+     * @throws NullPointerException if {@code executor} is null
+     */
+    public ConfigurationRegistry(Executor executor) {
+        this.executor = requireNonNull(executor, "executor");
+    }
+
+    /**
+     * Registers a configuration under the given name. If {@link #loadAll()} has already
+     * been called, the configuration is loaded right away. Otherwise, it is loaded by the
+     * first call of {@code loadAll()}, {@link #reloadAll()}, or {@link Entry#reload()}.
+     *
+     * @param name              the name of the configuration
+     * @param store             the store used to load the configuration
+     * @param configurationFile the file the configuration is loaded from
+     * @param <T>               the configuration type
+     * @return the entry of the configuration
+     * @throws IllegalArgumentException if a configuration with the same name is already registered
+     * @throws NullPointerException     if any argument is null
+     */
+    public <T> Entry<T> register(String name, FileConfigurationStore<T> store, Path configurationFile) {
+        final Entry<T> entry = new Entry<>(
+                requireNonNull(name, "name"),
+                requireNonNull(store, "store"),
+                requireNonNull(configurationFile, "configuration file"),
+                executor
+        );
+        synchronized (entries) {
+            if (entries.containsKey(name)) {
+                String msg = "A configuration with name '" + name + "' is already registered.";
+                throw new IllegalArgumentException(msg);
+            }
+            entries.put(name, entry);
+            if (!loadStarted) return entry;
+        }
+        entry.reload();
+        return entry;
+    }
+
+    /**
+     * Removes the configuration with the given name from this registry.
+     *
+     * @param name the name of the configuration
+     * @return whether a configuration with that name was registered
+     * @throws NullPointerException if {@code name} is null
+     */
+    public boolean unregister(String name) {
+        requireNonNull(name, "name");
+        synchronized (entries) {
+            return entries.remove(name) != null;
+        }
+    }
+
+    /**
+     * Returns the entries of all registered configurations in the order in which they have
+     * been registered.
+     *
+     * @return unmodifiable list of entries
+     */
+    public List<Entry<?>> entries() {
+        synchronized (entries) {
+            return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+        }
+    }
+
+    /**
+     * Loads all registered configurations concurrently for the first time. Configurations
+     * registered after this method has been called are loaded when they are registered.
+     * Calling this method more than once has no further effect.
+     *
+     * @return the future returned by {@link #initialLoad()}
+     */
+    public CompletableFuture<List<ReloadResult>> loadAll() {
+        final List<Entry<?>> entries;
+        synchronized (this.entries) {
+            if (loadStarted) return initialLoad();
+            loadStarted = true;
+            entries = new ArrayList<>(this.entries.values());
+        }
+        final List<CompletableFuture<ReloadResult>> futures = new ArrayList<>(entries.size());
+        for (final Entry<?> entry : entries) {
+            entry.reload();
+            futures.add(entry.initialLoad);
+        }
+        collect(futures).whenComplete((results, exception) -> {
+            if (exception == null) initialLoad.complete(results);
+            else initialLoad.completeExceptionally(exception);
+        });
+        return initialLoad();
+    }
+
+    /**
+     * Returns a future that is completed with the results of the first load of the
+     * configurations that were registered when {@link #loadAll()} was called, in the order
+     * in which they have been registered. The future is not completed before
+     * {@code loadAll()} has been called. It is completed exceptionally if loading any of
+     * these configurations threw an {@code Error}.
+     *
+     * @return a future that is completed once the initial load has finished
+     */
+    public CompletableFuture<List<ReloadResult>> initialLoad() {
+        // a dependent future so that callers cannot complete the shared one
+        return initialLoad.thenApply(results -> results);
+    }
+
+    /**
+     * Reloads all registered configurations concurrently.
+     *
+     * @return a future that is completed with the results of reloading the configurations,
+     * in the order in which they have been registered, once all of them have been reloaded
+     */
+    public CompletableFuture<List<ReloadResult>> reloadAll() {
+        final List<Entry<?>> entries = entries();
+        final List<CompletableFuture<ReloadResult>> futures = new ArrayList<>(entries.size());
+        for (final Entry<?> entry : entries) {
+            futures.add(entry.reload());
+        }
+        return collect(futures);
+    }
+
+    private static CompletableFuture<List<ReloadResult>> collect(
+            List<CompletableFuture<ReloadResult>> futures
+    ) {
+        return CompletableFuture
+                .allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    final List<ReloadResult> results = new ArrayList<>(futures.size());
+                    for (final CompletableFuture<ReloadResult> future : futures) {
+                        results.add(future.join());
+                    }
+                    return Collections.unmodifiableList(results);
+                });
+    }
+
+    /**
+     * A configuration registered in a {@code ConfigurationRegistry}.
+     *
+     * @param <T> the configuration type
+     */
+    public static final class Entry<T> {
+        private final String name;
+        private final FileConfigurationStore<T> store;
+        private final Path configurationFile;
+        private final Executor executor;
+        private final List<Consumer<? super T>> listeners = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<ReloadResult> initialLoad = new CompletableFuture<>();
+        private volatile T configuration;
+
+        private Entry(
+                String name,
+                FileConfigurationStore<T> store,
+                Path configurationFile,
+                Executor executor
+        ) {
+            this.name = name;
+            this.store = store;
+            this.configurationFile = configurationFile;
+            this.executor = executor;
+        }
+
+        /**
+         * Returns the name of this configuration.
+         *
+         * @return the name
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the most recently loaded configuration, or null if the configuration has
+         * not been loaded yet. Wait on {@link #initialLoad()} to make sure it has been.
+         *
+         * @return the configuration or null
+         */
+        public T get() {
+            return configuration;
+        }
+
+        /**
+         * Returns a future that is completed with the result of the first load of this
+         * configuration, whether it succeeded or not. If the load threw an {@code Error},
+         * the future is completed exceptionally with that error.
+         *
+         * @return a future that is completed once this configuration has first been loaded
+         */
+        public CompletableFuture<ReloadResult> initialLoad() {
+            return initialLoad.thenApply(result -> result);
+        }
+
+        /**
+         * Adds a listener that is called with the configuration each time it has been loaded.
+         * Listeners are called by a thread of the executor of the registry. Exceptions
+         * thrown by listeners do not cause the reload to fail but are reported by
+         * {@link ReloadResult#listenerExceptions()}.
+         *
+         * @param listener the listener
+         * @throws NullPointerException if {@code listener} is null
+         */
+        public void addListener(Consumer<? super T> listener) {
+            listeners.add(requireNonNull(listener, "listener"));
+        }
+
+        /**
+         * Reloads this configuration using the executor of the registry.
+         *
+         * @return a future that is completed with the result of reloading the configuration
+         */
+        public CompletableFuture<ReloadResult> reload() {
+            return CompletableFuture.supplyAsync(this::reloadNow, executor)
+                    .whenComplete((result, exception) -> {
+                        // errors are not turned into results by reloadNow but must not
+                        // keep callers waiting for the initial load forever
+                        if (exception != null) initialLoad.completeExceptionally(exception);
+                    });
+        }
+
+        // reloads of the same configuration must not write its file concurrently
+        private synchronized ReloadResult reloadNow() {
+            final long start = System.nanoTime();
+            final T configuration;
+            try {
+                configuration = store.update(configurationFile);
+            } catch (RuntimeException e) {
+                return completeInitialLoad(new ReloadResult(
+                        name, System.nanoTime() - start, e, Collections.emptyList()
+                ));
+            }
+            this.configuration = configuration;
+            final long duration = System.nanoTime() - start;
+            final List<RuntimeException> listenerExceptions = new ArrayList<>(0);
+            for (final Consumer<? super T> listener : listeners) {
+                try {
+                    listener.accept(configuration);
+                } catch (RuntimeException e) {
+                    listenerExceptions.add(e);
+                }
+            }
+            return completeInitialLoad(new ReloadResult(
+                    name, duration, null, Collections.unmodifiableList(listenerExceptions)
+            ));
+        }
+
+        private ReloadResult completeInitialLoad(ReloadResult result) {
+            initialLoad.complete(result);
+            return result;
+        }
+    }
+
+    /**
+     * The result of reloading a configuration.
+     */
+    public static final class ReloadResult {
+        private final String name;
+        private final long durationNanos;
+        private final RuntimeException exception;
+        private final List<RuntimeException> listenerExceptions;
+
+        private ReloadResult(
+                String name,
+                long durationNanos,
+                RuntimeException exception,
+                List<RuntimeException> listenerExceptions
+        ) {
+            this.name = name;
+            this.durationNanos = durationNanos;
+            this.exception = exception;
+            this.listenerExceptions = listenerExceptions;
+        }
+
+        /**
+         * Returns the name of the configuration.
+         *
+         * @return the name
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the time it took to reload the configuration.
+         *
+         * @param unit the unit of the returned duration
+         * @return the duration in the given unit
+         */
+        public long duration(TimeUnit unit) {
+            return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns whether the configuration has been reloaded successfully. A reload
+         * succeeds if the configuration could be loaded, even if some of its listeners
+         * threw an exception.
+         *
+         * @return whether the reload succeeded
+         */
+        public boolean succeeded() {
+            return exception == null;
+        }
+
+        /**
+         * Returns the exception that caused the reload to fail, or null if it succeeded.
+         *
+         * @return the exception or null
+         */
+        public RuntimeException exception() {
+            return exception;
+        }
+
+        /**
+         * Returns the exceptions thrown by the listeners of the configuration after it
+         * has been reloaded. If the reload failed, no listeners were called and the
+         * returned list is empty.
+         *
+         * @return unmodifiable list of exceptions thrown by listeners
+         */
+        public List<RuntimeException> listenerExceptions() {
+            return listenerExceptions;
+        }
+
+        @Override
+        public String toString() {
+            final String duration = String.format(Locale.ROOT, "%.1f ms", durationNanos / 1e6);
+            if (!succeeded())
+                return name + ": failed after " + duration + " (" + exception.getMessage() + ")";
+            return listenerExceptions.isEmpty()
+                    ? name + ": reloaded in " + duration
+                    : name + ": reloaded in " + duration + ", but " +
+                      listenerExceptions.size() + " listener(s) failed";
+        }
+    }
+}
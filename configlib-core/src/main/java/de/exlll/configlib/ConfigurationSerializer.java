@@ -2,6 +2,9 @@ package de.exlll.configlib;
 
 import de.exlll.configlib.ConfigurationElements.FieldElement;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -42,7 +45,7 @@ final class ConfigurationSerializer<T> extends TypeSerializer<T, FieldElement> {
     }
 
     @Override
-    protected List<FieldElement> elements() {
+    protected List<FieldElement> extractElements() {
         return FieldExtractors.CONFIGURATION.extract(type)
                 .filter(properties.getFieldFilter())
                 .map(FieldElement::new)
@@ -51,18 +54,61 @@ final class ConfigurationSerializer<T> extends TypeSerializer<T, FieldElement> {
 
     @Override
     T newDefaultInstance() {
-        return Reflect.callNoParamConstructor(type);
+        if (cloneHandle == null)
+            return Reflect.callNoParamConstructor(type);
+        try {
+            return type.cast((Object) cloneHandle.invokeExact(defaultInstance));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
     }
 
     Class<T> getConfigurationType() {
         return type;
     }
 
-    // This object must only be used for the `getDefaultValueOf` method below.
-    private final T defaultInstance = newDefaultInstance();
+    // This object must only be used to capture the default values and as the
+    // prototype of the instances returned by `newDefaultInstance`.
+    private final T defaultInstance = Reflect.callNoParamConstructor(type);
+    private final Object[] defaultValues = captureDefaultValues();
+    // The clone method is unreflected once so that creating an instance doesn't require
+    // any reflective access checks.
+    private final MethodHandle cloneHandle = properties.cloneDefaultInstances()
+            ? unreflectCloneMethod()
+            : null;
+
+    private Object[] captureDefaultValues() {
+        final List<FieldElement> elements = elements();
+        final Object[] result = new Object[elements.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = Reflect.getValue(elements.get(i).element(), defaultInstance);
+        return result;
+    }
+
+    private MethodHandle unreflectCloneMethod() {
+        final Method method = findCloneMethod();
+        return (method == null)
+                ? null
+                : Reflect.unreflect(method, MethodType.methodType(Object.class, Object.class));
+    }
+
+    private Method findCloneMethod() {
+        if (!Cloneable.class.isAssignableFrom(type))
+            return null;
+        for (Class<?> cls = type; cls != Object.class; cls = cls.getSuperclass()) {
+            try {
+                return cls.getDeclaredMethod("clone");
+            } catch (NoSuchMethodException e) {
+                // continue with superclass
+            }
+        }
+        return null;
+    }
 
     @Override
-    protected Object getDefaultValueOf(FieldElement element) {
-        return Reflect.getValue(element.element(), defaultInstance);
+    protected Object getDefaultValueOf(int index) {
+        return defaultValues[index];
     }
 }
@@ -1,6 +1,7 @@
 package de.exlll.configlib;
 
 import java.nio.charset.Charset;
+import java.util.Objects;
 
 /**
  * An extension of the {@code ConfigurationProperties} class that allows configuring properties
@@ -184,4 +185,20 @@ public class FileConfigurationProperties extends ConfigurationProperties {
         return charset;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!super.equals(o)) return false;
+        final FileConfigurationProperties other = (FileConfigurationProperties) o;
+        return (createParentDirectories == other.createParentDirectories) &&
+               Objects.equals(header, other.header) &&
+               Objects.equals(footer, other.footer) &&
+               charset.equals(other.charset);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() +
+               Objects.hash(header, footer, createParentDirectories, charset);
+    }
 }
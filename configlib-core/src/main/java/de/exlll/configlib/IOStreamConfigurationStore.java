@@ -1,7 +1,13 @@
 package de.exlll.configlib;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import static de.exlll.configlib.Validator.requireNonNull;
 
 /**
  * Instances of this class read and write configurations from input streams and to output streams,
@@ -9,6 +15,12 @@ import java.io.OutputStream;
  * <p>
  * The details of how configurations are serialized and deserialized are defined by the
  * implementations of this interface.
+ * <p>
+ * In addition to streams, configurations can be read from and written to byte arrays
+ * and byte buffers. The default implementations of these methods delegate to the
+ * stream-based methods; implementations override them where they can avoid copying.
+ * Stores of configurations that are stored as text implement
+ * {@link TextConfigurationStore}, which also supports character sequences.
  *
  * @param <T> the configuration type
  */
@@ -35,4 +47,64 @@ public interface IOStreamConfigurationStore<T> {
      * @throws RuntimeException       if reading the input stream throws an exception
      */
     T read(InputStream inputStream);
+
+    /**
+     * Reads a configuration from the given byte array.
+     *
+     * @param bytes the bytes the configuration is read from
+     * @return a newly created configuration initialized with values read from {@code bytes}
+     * @throws ConfigurationException if the configuration cannot be deserialized
+     * @throws NullPointerException   if {@code bytes} is null
+     */
+    default T read(byte[] bytes) {
+        requireNonNull(bytes, "bytes");
+        return read(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Reads a configuration from the remaining bytes of the given buffer. When this method
+     * returns, the position of the buffer equals its limit.
+     *
+     * @param buffer the buffer the configuration is read from
+     * @return a newly created configuration initialized with values read from {@code buffer}
+     * @throws ConfigurationException if the configuration cannot be deserialized
+     * @throws NullPointerException   if {@code buffer} is null
+     */
+    default T read(ByteBuffer buffer) {
+        requireNonNull(buffer, "buffer");
+        final InputStream inputStream;
+        if (buffer.hasArray()) {
+            final int offset = buffer.arrayOffset() + buffer.position();
+            inputStream = new ByteArrayInputStream(buffer.array(), offset, buffer.remaining());
+            buffer.position(buffer.limit());
+        } else {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            inputStream = new ByteArrayInputStream(bytes);
+        }
+        return read(inputStream);
+    }
+
+    /**
+     * Writes a configuration instance to the given buffer, starting at its current position.
+     * When this method returns, the position of the buffer is just after the last byte
+     * written. If the buffer does not have enough remaining space, its position is not
+     * changed.
+     *
+     * @param configuration the configuration
+     * @param buffer        the buffer the configuration is written to
+     * @throws BufferOverflowException if the buffer does not have enough remaining space
+     * @throws ConfigurationException  if the configuration contains invalid values or
+     *                                 cannot be serialized
+     * @throws NullPointerException    if any argument is null
+     */
+    default void writeTo(T configuration, ByteBuffer buffer) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(buffer, "buffer");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(configuration, outputStream);
+        if (outputStream.size() > buffer.remaining())
+            throw new BufferOverflowException();
+        buffer.put(outputStream.toByteArray());
+    }
 }
@@ -0,0 +1,120 @@
+package de.exlll.configlib;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A holder whose value is only deserialized when it is accessed for the first time.
+ * <p>
+ * Configuration elements of type {@code Lazy<T>} (and collection elements or map values
+ * of that type) keep the serialized form of their value when a configuration is loaded.
+ * The value is deserialized the first time {@link #get()} is called. Values that are never
+ * accessed are written back exactly as they were read when the configuration is saved.
+ * This is useful for large sections of a configuration of which only few are used, for
+ * example, messages for many different locales.
+ *
+ * <pre>
+ * {@code
+ * public final class Config {
+ *     private Map<String, Lazy<Messages>> messagesByLocale = new HashMap<>();
+ *     private Lazy<Messages> fallback = Lazy.of(new Messages());
+ * }
+ * }
+ * </pre>
+ * Since deserialization is deferred, errors in the serialized form of a value are only
+ * reported by the first call to {@code get}. Instances of this class are thread-safe.
+ *
+ * @param <T> the type of the value
+ */
+public final class Lazy<T> {
+    private volatile boolean loaded;
+    private T value;
+    private Object serialized;
+    private Serializer<? extends T, Object> serializer;
+
+    private Lazy(T value, Object serialized, Serializer<? extends T, Object> serializer) {
+        this.loaded = (serializer == null);
+        this.value = value;
+        this.serialized = serialized;
+        this.serializer = serializer;
+    }
+
+    /**
+     * Returns a holder that contains the given value.
+     *
+     * @param value the value
+     * @param <T>   the type of the value
+     * @return new holder
+     * @throws NullPointerException if {@code value} is null
+     */
+    public static <T> Lazy<T> of(T value) {
+        return new Lazy<>(requireNonNull(value, "value"), null, null);
+    }
+
+    static <T> Lazy<T> unloaded(Object serialized, Serializer<? extends T, Object> serializer) {
+        requireNonNull(serialized, "serialized value");
+        requireNonNull(serializer, "serializer");
+        return new Lazy<>(null, serialized, serializer);
+    }
+
+    /**
+     * Returns the value of this holder, deserializing it if that has not been done yet.
+     *
+     * @return the value
+     * @throws ConfigurationException if the value cannot be deserialized
+     */
+    public T get() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) load();
+            }
+        }
+        return value;
+    }
+
+    private void load() {
+        try {
+            value = serializer.deserialize(serialized);
+        } catch (RuntimeException e) {
+            String msg = "Lazy deserialization of value '" + serialized + "' failed.";
+            throw new ConfigurationException(msg, e);
+        }
+        serialized = null;
+        serializer = null;
+        loaded = true;
+    }
+
+    /**
+     * Returns whether the value of this holder has already been deserialized.
+     *
+     * @return whether the value has been deserialized
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the serialized form of the value of this holder if the value has not been
+     * deserialized yet, or null otherwise.
+     *
+     * @return the serialized value or null
+     */
+    synchronized Object serialized() {
+        return serialized;
+    }
+
+    /**
+     * Serializes the value of this holder with the given serializer. If the value has not
+     * been deserialized yet, its serialized form is returned instead.
+     *
+     * @param serializer the serializer
+     * @return the serialized value
+     */
+    synchronized Object serialize(Serializer<? super T, ?> serializer) {
+        return loaded ? serializer.serialize(value) : serialized;
+    }
+
+    @Override
+    public String toString() {
+        return loaded ? "Lazy[" + value + "]" : "Lazy[<not loaded>]";
+    }
+}
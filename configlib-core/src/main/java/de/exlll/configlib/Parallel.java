@@ -0,0 +1,95 @@
+package de.exlll.configlib;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Helpers for splitting deserialization work across the common {@link ForkJoinPool}.
+ */
+final class Parallel {
+    /**
+     * A threshold that disables parallel execution.
+     */
+    static final int DISABLED = Integer.MAX_VALUE;
+    /**
+     * Whether the current thread is applying the action of a task created by this class.
+     * Unlike {@link java.util.concurrent.ForkJoinTask#inForkJoinPool()}, this is false
+     * for unrelated tasks that run in the common pool, like those of
+     * {@code CompletableFuture.supplyAsync}.
+     */
+    private static final ThreadLocal<Boolean> IN_TASK = new ThreadLocal<>();
+
+    private Parallel() {}
+
+    /**
+     * Returns whether the current thread is applying the action of one of the tasks
+     * started by {@code forEachIndex}.
+     *
+     * @return whether the current thread is running a parallel task of this class
+     */
+    static boolean inParallelTask() {
+        return IN_TASK.get() != null;
+    }
+
+    /**
+     * Applies the action to all indices in {@code [0, size)} in parallel. Indices are
+     * processed in chunks of at least {@code grainSize} indices. This method returns
+     * once the action has been applied to all indices.
+     *
+     * @param size      the number of indices
+     * @param grainSize the minimum number of indices that are processed by a single task
+     * @param action    the action
+     */
+    static void forEachIndex(int size, int grainSize, IntConsumer action) {
+        new IndexRangeAction(0, size, Math.max(1, grainSize), action).invoke();
+    }
+
+    /**
+     * Applies the action to all indices in {@code [0, size)} in parallel, splitting the
+     * indices in roughly four chunks per thread of the common pool.
+     *
+     * @param size   the number of indices
+     * @param action the action
+     */
+    static void forEachIndex(int size, IntConsumer action) {
+        final int chunks = 4 * ForkJoinPool.getCommonPoolParallelism();
+        forEachIndex(size, size / chunks, action);
+    }
+
+    private static final class IndexRangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+        private final transient IntConsumer action;
+
+        private IndexRangeAction(int from, int to, int grainSize, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grainSize) {
+                // tasks can be nested when a worker runs another task while it waits
+                final Boolean previous = IN_TASK.get();
+                IN_TASK.set(Boolean.TRUE);
+                try {
+                    for (int i = from; i < to; i++)
+                        action.accept(i);
+                } finally {
+                    if (previous == null) IN_TASK.remove();
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                    new IndexRangeAction(from, middle, grainSize, action),
+                    new IndexRangeAction(middle, to, grainSize, action)
+            );
+        }
+    }
+}
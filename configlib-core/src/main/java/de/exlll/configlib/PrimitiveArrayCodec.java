@@ -0,0 +1,284 @@
+package de.exlll.configlib;
+
+import java.util.Arrays;
+
+/**
+ * Encodes primitive arrays into compact byte arrays and decodes them again.
+ * <p>
+ * The encoding depends on the component type of the array:
+ * <ul>
+ * <li>{@code byte[]} arrays are stored as they are (as a copy).</li>
+ * <li>
+ *     All other arrays start with the number of elements, encoded as an unsigned varint,
+ *     which is followed by the elements.
+ * </li>
+ * <li>
+ *     The elements of {@code short[]}, {@code int[]}, and {@code long[]} arrays are encoded
+ *     as the zigzag-encoded varint of their difference to the previous element, so that
+ *     sorted or slowly changing values (e.g. heightmaps) only need one or two bytes each.
+ * </li>
+ * <li>The elements of {@code char[]} arrays are encoded as unsigned varints.</li>
+ * <li>The elements of {@code boolean[]} arrays are encoded as bits, eight per byte.</li>
+ * <li>
+ *     The elements of {@code float[]} and {@code double[]} arrays are encoded as their raw
+ *     IEEE 754 bits in big-endian byte order.
+ * </li>
+ * </ul>
+ */
+final class PrimitiveArrayCodec {
+    private PrimitiveArrayCodec() {}
+
+    static byte[] encode(Object array) {
+        // the encoded array must not change when the configuration does
+        if (array instanceof byte[]) return ((byte[]) array).clone();
+
+        final Writer writer;
+        if (array instanceof boolean[]) {
+            final boolean[] values = (boolean[]) array;
+            writer = new Writer(5 + (values.length + 7) / 8);
+            writer.writeUnsignedVarInt(values.length);
+            for (int i = 0; i < values.length; i += 8) {
+                int bits = 0;
+                for (int j = 0, max = Math.min(8, values.length - i); j < max; j++) {
+                    if (values[i + j]) bits |= 1 << j;
+                }
+                writer.writeByte(bits);
+            }
+        } else if (array instanceof char[]) {
+            final char[] values = (char[]) array;
+            writer = new Writer(5 + 3 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            for (char value : values) writer.writeUnsignedVarInt(value);
+        } else if (array instanceof short[]) {
+            final short[] values = (short[]) array;
+            writer = new Writer(5 + 3 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            int previous = 0;
+            for (short value : values) {
+                writer.writeUnsignedVarInt(zigzag(value - previous));
+                previous = value;
+            }
+        } else if (array instanceof int[]) {
+            final int[] values = (int[]) array;
+            writer = new Writer(5 + 5 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            int previous = 0;
+            for (int value : values) {
+                writer.writeUnsignedVarInt(zigzag(value - previous));
+                previous = value;
+            }
+        } else if (array instanceof long[]) {
+            final long[] values = (long[]) array;
+            writer = new Writer(5 + 10 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            long previous = 0;
+            for (long value : values) {
+                writer.writeUnsignedVarLong(zigzag(value - previous));
+                previous = value;
+            }
+        } else if (array instanceof float[]) {
+            final float[] values = (float[]) array;
+            writer = new Writer(5 + 4 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            for (float value : values) writer.writeInt(Float.floatToRawIntBits(value));
+        } else if (array instanceof double[]) {
+            final double[] values = (double[]) array;
+            writer = new Writer(5 + 8 * values.length);
+            writer.writeUnsignedVarInt(values.length);
+            for (double value : values) writer.writeLong(Double.doubleToRawLongBits(value));
+        } else {
+            String msg = "Object '" + array + "' is not an array of primitive type.";
+            throw new IllegalArgumentException(msg);
+        }
+        return writer.toByteArray();
+    }
+
+    static Object decode(byte[] bytes, Class<?> componentType) {
+        if (componentType == byte.class) return bytes.clone();
+
+        final Reader reader = new Reader(bytes, componentType);
+        final int length = reader.readLength();
+        final Object result;
+        if (componentType == boolean.class) {
+            final boolean[] values = new boolean[length];
+            for (int i = 0; i < length; i += 8) {
+                final int bits = reader.readByte();
+                for (int j = 0, max = Math.min(8, length - i); j < max; j++) {
+                    values[i + j] = (bits & (1 << j)) != 0;
+                }
+            }
+            result = values;
+        } else if (componentType == char.class) {
+            final char[] values = new char[length];
+            for (int i = 0; i < length; i++) {
+                final int value = reader.readUnsignedVarInt();
+                if ((value >>> 16) != 0) throw reader.malformed();
+                values[i] = (char) value;
+            }
+            result = values;
+        } else if (componentType == short.class) {
+            final short[] values = new short[length];
+            int previous = 0;
+            for (int i = 0; i < length; i++) {
+                final int value = previous + unzigzag(reader.readUnsignedVarInt());
+                if (value != (short) value) throw reader.malformed();
+                values[i] = (short) value;
+                previous = value;
+            }
+            result = values;
+        } else if (componentType == int.class) {
+            final int[] values = new int[length];
+            int previous = 0;
+            for (int i = 0; i < length; i++) {
+                previous += unzigzag(reader.readUnsignedVarInt());
+                values[i] = previous;
+            }
+            result = values;
+        } else if (componentType == long.class) {
+            final long[] values = new long[length];
+            long previous = 0;
+            for (int i = 0; i < length; i++) {
+                previous += unzigzag(reader.readUnsignedVarLong());
+                values[i] = previous;
+            }
+            result = values;
+        } else if (componentType == float.class) {
+            final float[] values = new float[length];
+            for (int i = 0; i < length; i++)
+                values[i] = Float.intBitsToFloat(reader.readInt());
+            result = values;
+        } else if (componentType == double.class) {
+            final double[] values = new double[length];
+            for (int i = 0; i < length; i++)
+                values[i] = Double.longBitsToDouble(reader.readLong());
+            result = values;
+        } else {
+            String msg = "Class " + componentType.getSimpleName() + " is not a primitive type.";
+            throw new IllegalArgumentException(msg);
+        }
+        reader.requireFullyRead();
+        return result;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position = 0;
+
+        private Writer(int maxLength) {
+            this.buffer = new byte[maxLength];
+        }
+
+        void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        void writeUnsignedVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeUnsignedVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte(((int) value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeInt(int value) {
+            writeByte(value >>> 24);
+            writeByte(value >>> 16);
+            writeByte(value >>> 8);
+            writeByte(value);
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        byte[] toByteArray() {
+            return (position == buffer.length) ? buffer : Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private final Class<?> componentType;
+        private int position = 0;
+
+        private Reader(byte[] buffer, Class<?> componentType) {
+            this.buffer = buffer;
+            this.componentType = componentType;
+        }
+
+        int readByte() {
+            if (position >= buffer.length) throw malformed();
+            return buffer[position++] & 0xFF;
+        }
+
+        int readLength() {
+            final int length = readUnsignedVarInt();
+            // every element occupies at least one bit, so larger lengths must be corrupt
+            if ((length < 0) || (length / 8 > buffer.length)) throw malformed();
+            return length;
+        }
+
+        int readUnsignedVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                final int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw malformed();
+        }
+
+        long readUnsignedVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                final int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw malformed();
+        }
+
+        int readInt() {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        void requireFullyRead() {
+            if (position != buffer.length) throw malformed();
+        }
+
+        ConfigurationException malformed() {
+            String msg = "The binary data is not a valid encoding of a " +
+                         componentType.getSimpleName() + " array.";
+            return new ConfigurationException(msg);
+        }
+    }
+}
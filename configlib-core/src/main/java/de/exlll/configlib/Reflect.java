@@ -1,5 +1,8 @@
 package de.exlll.configlib;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.Arrays;
 import java.util.List;
@@ -188,4 +191,22 @@ final class Reflect {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns a method handle for the given method that has been adapted to the given type.
+     *
+     * @param method the method
+     * @param type   the type of the returned method handle
+     * @return the method handle
+     */
+    static MethodHandle unreflect(Method method, MethodType type) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException e) {
+            /* This exception should not be thrown because we set the method to be accessible. */
+            String msg = String.format("Illegal access of method '%s'.", method);
+            throw new RuntimeException(msg, e);
+        }
+    }
 }
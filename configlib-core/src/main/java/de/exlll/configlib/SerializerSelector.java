@@ -14,31 +14,35 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 
+import static de.exlll.configlib.Serializers.hashCapacity;
 import static de.exlll.configlib.Validator.requireNonNull;
 
 final class SerializerSelector {
     private static final Map<Class<?>, Serializer<?, ?>> DEFAULT_SERIALIZERS = new HashMap<Class<?>, Serializer<?, ?>>() {{
         put(boolean.class, new BooleanSerializer());
         put(Boolean.class, new BooleanSerializer());
-        put(byte.class, new NumberSerializer(byte.class));
-        put(Byte.class, new NumberSerializer(Byte.class));
-        put(short.class, new NumberSerializer(short.class));
-        put(Short.class, new NumberSerializer(Short.class));
-        put(int.class, new NumberSerializer(int.class));
-        put(Integer.class, new NumberSerializer(Integer.class));
-        put(long.class, new NumberSerializer(long.class));
-        put(Long.class, new NumberSerializer(Long.class));
-        put(float.class, new NumberSerializer(float.class));
-        put(Float.class, new NumberSerializer(Float.class));
-        put(double.class, new NumberSerializer(double.class));
-        put(Double.class, new NumberSerializer(Double.class));
+        put(byte.class, new ByteSerializer(byte.class));
+        put(Byte.class, new ByteSerializer(Byte.class));
+        put(short.class, new ShortSerializer(short.class));
+        put(Short.class, new ShortSerializer(Short.class));
+        put(int.class, new IntegerSerializer(int.class));
+        put(Integer.class, new IntegerSerializer(Integer.class));
+        put(long.class, new LongSerializer(long.class));
+        put(Long.class, new LongSerializer(Long.class));
+        put(float.class, new FloatSerializer(float.class));
+        put(Float.class, new FloatSerializer(Float.class));
+        put(double.class, new DoubleSerializer(double.class));
+        put(Double.class, new DoubleSerializer(Double.class));
         put(char.class, new CharacterSerializer());
         put(Character.class, new CharacterSerializer());
         put(String.class, new StringSerializer());
@@ -55,8 +59,40 @@ final class SerializerSelector {
         put(URI.class, new UriSerializer());
 
     }};
+    /**
+     * Factories for the lists, sets, and maps that are created during deserialization, given
+     * the number of elements they are going to hold. For interfaces, the factories create the
+     * implementation this library has always used (e.g. {@code ArrayList} for {@code List}).
+     */
+    private static final Map<Class<?>, IntFunction<?>> DEFAULT_COLLECTION_FACTORIES = new HashMap<Class<?>, IntFunction<?>>() {{
+        put(List.class, ArrayList::new);
+        put(ArrayList.class, ArrayList::new);
+        put(LinkedList.class, size -> new LinkedList<>());
+        put(Set.class, size -> new HashSet<>(hashCapacity(size)));
+        put(HashSet.class, size -> new HashSet<>(hashCapacity(size)));
+        put(LinkedHashSet.class, size -> new LinkedHashSet<>(hashCapacity(size)));
+        put(SortedSet.class, size -> new TreeSet<>());
+        put(NavigableSet.class, size -> new TreeSet<>());
+        put(TreeSet.class, size -> new TreeSet<>());
+        put(ConcurrentSkipListSet.class, size -> new ConcurrentSkipListSet<>());
+        put(Map.class, size -> new LinkedHashMap<>(hashCapacity(size)));
+        put(HashMap.class, size -> new LinkedHashMap<>(hashCapacity(size)));
+        put(LinkedHashMap.class, size -> new LinkedHashMap<>(hashCapacity(size)));
+        put(SortedMap.class, size -> new TreeMap<>());
+        put(NavigableMap.class, size -> new TreeMap<>());
+        put(TreeMap.class, size -> new TreeMap<>());
+        put(ConcurrentMap.class, size -> new ConcurrentHashMap<>(hashCapacity(size)));
+        put(ConcurrentHashMap.class, size -> new ConcurrentHashMap<>(hashCapacity(size)));
+        put(ConcurrentNavigableMap.class, size -> new ConcurrentSkipListMap<>());
+        put(ConcurrentSkipListMap.class, size -> new ConcurrentSkipListMap<>());
+    }};
 
     private final ConfigurationProperties properties;
+    /**
+     * Caches the custom serializer lookups of types that are not classes (e.g. parameterized
+     * types). Lookups of classes are cached in the configuration properties.
+     */
+    private final Map<Type, CustomSerializerLookup> lookupsByType = new HashMap<>();
     /**
      * Holds the last {@link #select}ed configuration element.
      */
@@ -107,106 +143,85 @@ final class SerializerSelector {
     }
 
     private Serializer<?, ?> selectCustomSerializer(AnnotatedType annotatedType) {
-        Optional<Serializer<?, ?>> configurationElementSerializer = findConfigurationElementSerializer(annotatedType);
-        if (configurationElementSerializer.isPresent()) {
-            return configurationElementSerializer.get();
-        }
-
-        Optional<Serializer<?, ?>> serializerFactoryForType = findSerializerFactoryForType(annotatedType);
-        if (serializerFactoryForType.isPresent()) {
-            return serializerFactoryForType.get();
-        }
-
-        Optional<Serializer<?, ?>> serializerForType = findSerializerForType(annotatedType);
-        if (serializerForType.isPresent()) {
-            return serializerForType.get();
-        }
-
-        Optional<Serializer<?, ?>> serializerOnType = findSerializerOnType(annotatedType);
-        if (serializerOnType.isPresent()) {
-            return serializerOnType.get();
-        }
-
-        Optional<Serializer<?, ?>> metaSerializerOnType = findMetaSerializerOnType(annotatedType);
-        if (metaSerializerOnType.isPresent()) {
-            return metaSerializerOnType.get();
-        }
-
-        Optional<Serializer<?, ?>> serializerByCondition = findSerializerByCondition(annotatedType);
-        return serializerByCondition.orElse(null);
-    }
-
-    private Optional<Serializer<?, ?>> findConfigurationElementSerializer(AnnotatedType annotatedType) {
         // SerializeWith annotation on configuration elements
         final SerializeWith annotation = element.annotation(SerializeWith.class);
         if ((annotation != null) && (currentNesting == annotation.nesting())) {
-            return Optional.of(newSerializerFromAnnotation(annotatedType, annotation));
+            return newSerializerFromAnnotation(annotatedType, annotation);
         }
-        return Optional.empty();
-    }
 
-    private Optional<Serializer<?, ?>> findSerializerFactoryForType(AnnotatedType annotatedType) {
-        // Serializer factory registered for Type via configurations properties
-        if (annotatedType.getType() instanceof Class<?>) {
-            Class<?> cls = (Class<?>) annotatedType.getType();
-            if (properties.getSerializerFactories().containsKey(cls)) {
-                final SerializerContext context = new SerializerContextImpl(properties, element, annotatedType);
-                final Function<? super SerializerContext, ? extends Serializer<?, ?>> factory = properties.getSerializerFactories().get(cls);
-                final Serializer<?, ?> serializer = factory.apply(context);
-                if (serializer == null) {
-                    String msg = "Serializer factories must not return null.";
-                    throw new ConfigurationException(msg);
-                }
-                return Optional.of(serializer);
-            }
+        final CustomSerializerLookup lookup = lookupCustomSerializer(annotatedType.getType());
+        if (lookup.serializer != null) {
+            return lookup.serializer;
+        } else if (lookup.annotation != null) {
+            return newSerializerFromAnnotation(annotatedType, lookup.annotation);
+        } else if (lookup.factory != null) {
+            return newSerializerFromFactory(annotatedType, lookup.factory);
         }
-        return Optional.empty();
+        return null;
     }
 
-    private Optional<Serializer<?, ?>> findSerializerForType(AnnotatedType annotatedType) {
-        // Serializer registered for Type via configurations properties
-        if (annotatedType.getType() instanceof Class<?>) {
-            Class<?> cls = (Class<?>) annotatedType.getType();
-            if (properties.getSerializers().containsKey(cls)) {
-                return Optional.of(properties.getSerializers().get(cls));
-            }
-        }
-        return Optional.empty();
+    private CustomSerializerLookup lookupCustomSerializer(Type type) {
+        if (type instanceof Class<?>)
+            return properties.getCustomSerializerLookups().get((Class<?>) type);
+        final CustomSerializerLookup cached = lookupsByType.get(type);
+        if (cached != null)
+            return cached;
+        final CustomSerializerLookup lookup = findCustomSerializer(properties, type);
+        lookupsByType.put(type, lookup);
+        return lookup;
     }
 
-    private Optional<Serializer<?, ?>> findSerializerOnType(AnnotatedType annotatedType) {
-        // SerializeWith annotation on type
-        if (annotatedType.getType() instanceof Class<?>) {
-            Class<?> cls = (Class<?>) annotatedType.getType();
-            if (cls.getDeclaredAnnotation(SerializeWith.class) != null) {
-                final SerializeWith annotation = cls.getDeclaredAnnotation(SerializeWith.class);
-                return Optional.of(newSerializerFromAnnotation(annotatedType, annotation));
-            }
-        }
-        return Optional.empty();
-    }
+    static CustomSerializerLookup findCustomSerializer(
+            ConfigurationProperties properties,
+            Type type
+    ) {
+        if (type instanceof Class<?>) {
+            final Class<?> cls = (Class<?>) type;
+
+            // Serializer factory registered for Type via configurations properties
+            final Function<? super SerializerContext, ? extends Serializer<?, ?>> factory =
+                    properties.getSerializerFactories().get(cls);
+            if (factory != null)
+                return new CustomSerializerLookup(null, null, factory);
+
+            // Serializer registered for Type via configurations properties
+            final Serializer<?, ?> serializer = properties.getSerializers().get(cls);
+            if (serializer != null)
+                return new CustomSerializerLookup(serializer, null, null);
 
-    private Optional<Serializer<?, ?>> findMetaSerializerOnType(AnnotatedType annotatedType) {
-        // SerializeWith meta annotation on type
-        if ((annotatedType.getType() instanceof Class<?>)) {
-            Class<?> cls = (Class<?>) annotatedType.getType();
+            // SerializeWith annotation on type
+            final SerializeWith annotation = cls.getDeclaredAnnotation(SerializeWith.class);
+            if (annotation != null)
+                return new CustomSerializerLookup(null, annotation, null);
+
+            // SerializeWith meta annotation on type
             for (final Annotation meta : cls.getDeclaredAnnotations()) {
                 final Class<? extends Annotation> metaType = meta.annotationType();
-                final SerializeWith annotation = metaType.getDeclaredAnnotation(SerializeWith.class);
-                if (annotation != null)
-                    return Optional.of(newSerializerFromAnnotation(annotatedType, annotation));
+                final SerializeWith metaAnnotation = metaType.getDeclaredAnnotation(SerializeWith.class);
+                if (metaAnnotation != null)
+                    return new CustomSerializerLookup(null, metaAnnotation, null);
             }
         }
-        return Optional.empty();
-    }
 
-    private Optional<Serializer<?, ?>> findSerializerByCondition(AnnotatedType annotatedType) {
         // Serializer registered for condition via configurations properties
         for (Map.Entry<Predicate<? super Type>, Serializer<?, ?>> entry : properties.getSerializersByCondition().entrySet()) {
-            if (entry.getKey().test(annotatedType.getType()))
-                return Optional.of(entry.getValue());
+            if (entry.getKey().test(type))
+                return new CustomSerializerLookup(entry.getValue(), null, null);
         }
-        return Optional.empty();
+        return CustomSerializerLookup.NONE;
+    }
+
+    private Serializer<?, ?> newSerializerFromFactory(
+            AnnotatedType annotatedType,
+            Function<? super SerializerContext, ? extends Serializer<?, ?>> factory
+    ) {
+        final SerializerContext context = new SerializerContextImpl(properties, element, annotatedType);
+        final Serializer<?, ?> serializer = factory.apply(context);
+        if (serializer == null) {
+            String msg = "Serializer factories must not return null.";
+            throw new ConfigurationException(msg);
+        }
+        return serializer;
     }
 
     private Serializer<?, ?> newSerializerFromAnnotation(
@@ -219,13 +234,15 @@ final class SerializerSelector {
 
     private Serializer<?, ?> selectForClass(AnnotatedType annotatedType) {
         final Class<?> cls = (Class<?>) annotatedType.getType();
+        if ((cls == String.class) && (properties.getStringPool() != null))
+            return new StringSerializer(properties.getStringPool());
         if (DEFAULT_SERIALIZERS.containsKey(cls))
             return DEFAULT_SERIALIZERS.get(cls);
         if (Reflect.isEnumType(cls)) {
             // The following cast won't fail because we just checked that it's an enum.
             @SuppressWarnings("unchecked")
             final Class<? extends Enum<?>> enumType = (Class<? extends Enum<?>>) cls;
-            return new Serializers.EnumSerializer(enumType);
+            return new Serializers.EnumSerializer(enumType, properties.caseInsensitiveEnums());
         }
         if (Reflect.isArrayType(cls))
             return selectForArray((AnnotatedArrayType) annotatedType);
@@ -241,6 +258,22 @@ final class SerializerSelector {
     private Serializer<?, ?> selectForArray(AnnotatedArrayType annotatedType) {
         final AnnotatedType annotatedElementType = annotatedType.getAnnotatedGenericComponentType();
         final Class<?> elementType = (Class<?>) annotatedElementType.getType();
+        final Serializer<?, ?> primitiveArraySerializer = selectForPrimitiveArray(elementType);
+        if (primitiveArraySerializer != null) {
+            return properties.serializePrimitiveArraysAsBinary()
+                    ? new BinaryPrimitiveArraySerializer(elementType, primitiveArraySerializer)
+                    : primitiveArraySerializer;
+        }
+        Serializer<?, ?> elementSerializer = selectForType(annotatedElementType);
+        boolean inputNulls = properties.inputNulls();
+        boolean outputNulls = properties.outputNulls();
+        return new ArraySerializer<>(
+                elementType, elementSerializer, outputNulls, inputNulls,
+                parallelismThreshold()
+        );
+    }
+
+    private static Serializer<?, ?> selectForPrimitiveArray(Class<?> elementType) {
         if (elementType == boolean.class) {
             return new PrimitiveBooleanArraySerializer();
         } else if (elementType == char.class) {
@@ -258,10 +291,7 @@ final class SerializerSelector {
         } else if (elementType == double.class) {
             return new PrimitiveDoubleArraySerializer();
         }
-        Serializer<?, ?> elementSerializer = selectForType(annotatedElementType);
-        boolean inputNulls = properties.inputNulls();
-        boolean outputNulls = properties.outputNulls();
-        return new ArraySerializer<>(elementType, elementSerializer, outputNulls, inputNulls);
+        return null;
     }
 
     private Serializer<?, ?> selectForParameterizedType(AnnotatedParameterizedType annotatedType) {
@@ -271,35 +301,175 @@ final class SerializerSelector {
         final AnnotatedType[] typeArgs = annotatedType.getAnnotatedActualTypeArguments();
         final boolean inputNulls = properties.inputNulls();
         final boolean outputNulls = properties.outputNulls();
+        final int threshold = parallelismThreshold();
 
+        if (rawType == Lazy.class) {
+            return new LazySerializer<>(selectForType(typeArgs[0]));
+        }
+
+        final Serializer<?, ?> result;
         if (Reflect.isListType(rawType)) {
             Serializer<?, ?> elementSerializer = selectForType(typeArgs[0]);
-            return new ListSerializer<>(elementSerializer, outputNulls, inputNulls);
+            IntFunction<?> factory = selectCollectionFactory(type, rawType, null);
+            result = new ListSerializer<>(
+                    elementSerializer, outputNulls, inputNulls,
+                    castFactory(factory), threshold
+            );
         } else if (Reflect.isSetType(rawType)) {
             Serializer<?, ?> elementSerializer = selectForType(typeArgs[0]);
-            return properties.serializeSetsAsLists()
-                    ? new SetAsListSerializer<>(elementSerializer, outputNulls, inputNulls)
-                    : new SetSerializer<>(elementSerializer, outputNulls, inputNulls);
+            IntFunction<?> factory = selectCollectionFactory(type, rawType, typeArgs[0].getType());
+            if (properties.serializeSetsAsLists()) {
+                result = new SetAsListSerializer<>(
+                        elementSerializer, outputNulls, inputNulls,
+                        castFactory(factory), threshold
+                );
+            } else {
+                result = new SetSerializer<>(
+                        elementSerializer, outputNulls, inputNulls,
+                        castFactory(factory), threshold
+                );
+            }
         } else if (Reflect.isMapType(rawType)) {
             if (typeArgs[0].getType() instanceof Class<?>) {
                 Class<?> cls = (Class<?>) typeArgs[0].getType();
                 if (DEFAULT_SERIALIZERS.containsKey(cls) || Reflect.isEnumType(cls)) {
                     Serializer<?, ?> keySerializer = selectForClass(typeArgs[0]);
+                    if (properties.serializeMapKeysAsStrings() && (
+                            Reflect.isIntegerType(cls) || Reflect.isFloatingPointType(cls) ||
+                            (cls == boolean.class) || (cls == Boolean.class))) {
+                        keySerializer = new StringMapKeySerializer<>(keySerializer, cls);
+                    }
                     Serializer<?, ?> valSerializer = selectForType(typeArgs[1]);
-                    return new MapSerializer<>(keySerializer, valSerializer, outputNulls, inputNulls);
+                    IntFunction<?> factory = selectCollectionFactory(type, rawType, cls);
+                    result = new MapSerializer<>(
+                            keySerializer, valSerializer, outputNulls, inputNulls,
+                            castFactory(factory), threshold
+                    );
+                    return makeUnmodifiableIfRequired(rawType, result);
                 }
             }
             String msg = baseExceptionMessage(type) +
                          "Map keys can only be of simple or enum type.";
             throw new ConfigurationException(msg);
+        } else {
+            String msg = baseExceptionMessage(type) +
+                         "Parameterized types other than lists, sets, maps, and lazy values cannot be serialized.";
+            throw new ConfigurationException(msg);
+        }
+        return makeUnmodifiableIfRequired(rawType, result);
+    }
+
+    /**
+     * Selects the factory that creates the list, set, or map that is filled during
+     * deserialization. Factories added via the configuration properties take precedence
+     * over enum-specialized collections, which take precedence over the defaults.
+     *
+     * @param type        the type for which the factory is selected
+     * @param rawType     the raw type of {@code type}
+     * @param elementType the element type of sets or the key type of maps, or null for lists
+     * @return the factory
+     */
+    private IntFunction<?> selectCollectionFactory(Type type, Class<?> rawType, Type elementType) {
+        final IntFunction<?> factory = properties.getCollectionFactories().get(rawType);
+        if (factory != null)
+            return factory;
+
+        final boolean isEnumElementType = (elementType instanceof Class<?>) &&
+                                          Reflect.isEnumType((Class<?>) elementType);
+        if ((rawType == EnumSet.class) ||
+            ((rawType == Set.class) && isEnumElementType && useEnumCollections())) {
+            return newEnumSetFactory((Class<?>) elementType);
+        }
+        if ((rawType == EnumMap.class) ||
+            ((rawType == Map.class) && isEnumElementType && useEnumCollections())) {
+            return newEnumMapFactory((Class<?>) elementType);
+        }
+
+        final IntFunction<?> defaultFactory = DEFAULT_COLLECTION_FACTORIES.get(rawType);
+        if (defaultFactory != null)
+            return defaultFactory;
+
+        final int modifiers = rawType.getModifiers();
+        if (!rawType.isInterface() && !Modifier.isAbstract(modifiers) &&
+            Reflect.hasDefaultConstructor(rawType)) {
+            return size -> Reflect.callNoParamConstructor(rawType);
         }
 
         String msg = baseExceptionMessage(type) +
-                     "Parameterized types other than lists, sets, and maps cannot be serialized.";
+                     "Type '" + rawType.getName() + "' cannot be instantiated. Either declare " +
+                     "the element with a type this library can instantiate or add a collection " +
+                     "factory for it to the configuration properties.";
         throw new ConfigurationException(msg);
     }
 
+    private int parallelismThreshold() {
+        return properties.parallelDeserialization()
+                ? properties.getParallelDeserializationThreshold()
+                : Parallel.DISABLED;
+    }
+
+    private boolean useEnumCollections() {
+        // EnumSets and EnumMaps don't allow null elements or keys
+        return properties.useEnumCollections() && !properties.inputNulls();
+    }
+
+    // The following casts won't fail because these factories are only selected
+    // for element types that are enums.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static IntFunction<?> newEnumSetFactory(Class<?> enumType) {
+        return size -> EnumSet.noneOf((Class) enumType);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static IntFunction<?> newEnumMapFactory(Class<?> enumType) {
+        return size -> new EnumMap<>((Class) enumType);
+    }
+
+    // The following cast is unchecked because factories are stored without their
+    // concrete types. A factory returning an object of the wrong type makes setting
+    // the value of the configuration element fail.
+    @SuppressWarnings("unchecked")
+    private static <C> IntFunction<C> castFactory(IntFunction<?> factory) {
+        return (IntFunction<C>) factory;
+    }
+
+    private Serializer<?, ?> makeUnmodifiableIfRequired(Class<?> rawType, Serializer<?, ?> serializer) {
+        final boolean isInterface = (rawType == List.class) ||
+                                    (rawType == Set.class) ||
+                                    (rawType == Map.class);
+        return (isInterface && properties.unmodifiableCollections())
+                ? new UnmodifiableSerializer<>(serializer)
+                : serializer;
+    }
+
     private String baseExceptionMessage(Type type) {
         return String.format("Cannot select serializer for type '%s'.\n", type);
     }
+
+    /**
+     * The result of looking up the custom serializer of a type that is not selected by a
+     * {@code SerializeWith} annotation on a configuration element. At most one of the fields
+     * is non-null. Serializers created from annotations or factories depend on the
+     * configuration element, so only the annotation or factory is part of the result.
+     * <p>
+     * Because the result only depends on the type and the configuration properties,
+     * it is cached: per class in the properties and per other type in the selector.
+     */
+    static final class CustomSerializerLookup {
+        static final CustomSerializerLookup NONE = new CustomSerializerLookup(null, null, null);
+
+        private final Serializer<?, ?> serializer;
+        private final SerializeWith annotation;
+        private final Function<? super SerializerContext, ? extends Serializer<?, ?>> factory;
+
+        private CustomSerializerLookup(
+                Serializer<?, ?> serializer,
+                SerializeWith annotation,
+                Function<? super SerializerContext, ? extends Serializer<?, ?>> factory
+        ) {
+            this.serializer = serializer;
+            this.annotation = annotation;
+            this.factory = factory;
+        }
+    }
 }
@@ -15,10 +15,7 @@ import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.IntFunction;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 final class Serializers {
     private Serializers() {}
@@ -32,6 +29,40 @@ final class Serializers {
                 : Reflect.callNoParamConstructor(serializerType);
     }
 
+    /**
+     * Returns the initial capacity a hash-based collection needs in order to hold
+     * {@code expectedSize} elements without being resized.
+     *
+     * @param expectedSize the number of elements the collection is expected to hold
+     * @return the initial capacity
+     */
+    static int hashCapacity(int expectedSize) {
+        return (expectedSize < 3) ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
+    /**
+     * Deserializes all non-null elements of the given array in parallel. The result
+     * contains the deserialized elements at the same indices as their serialized
+     * counterparts, and null at the indices of null elements.
+     *
+     * @param serializer the serializer used to deserialize the elements
+     * @param elements   the serialized elements
+     * @param <S>        the type of the deserialized elements
+     * @param <T>        the type of the serialized elements
+     * @return the deserialized elements
+     */
+    static <S, T> Object[] deserializeAllInParallel(Serializer<S, T> serializer, Object[] elements) {
+        final Object[] result = new Object[elements.length];
+        Parallel.forEachIndex(elements.length, i -> {
+            // The following cast won't fail because the array only
+            // contains elements the serializer expects.
+            @SuppressWarnings("unchecked")
+            final T element = (T) elements[i];
+            result[i] = (element == null) ? null : serializer.deserialize(element);
+        });
+        return result;
+    }
+
     static final class BooleanSerializer implements Serializer<Boolean, Boolean> {
         @Override
         public Boolean serialize(Boolean element) {
@@ -57,79 +88,58 @@ final class Serializers {
      *     requested type if the value of the number fits in the range.
      * </li>
      * </ul>
+     * Each number type has its own subclass, so that converting a number does not require
+     * any checks of the requested type.
      */
-    static final class NumberSerializer implements Serializer<Number, Number> {
+    static abstract class NumberSerializer implements Serializer<Number, Number> {
         private final Class<? extends Number> cls;
 
-        public NumberSerializer(Class<? extends Number> cls) {
+        NumberSerializer(Class<? extends Number> cls) {
             this.cls = Validator.requireNonNull(cls, "number class");
             Validator.requirePrimitiveOrWrapperNumberType(cls);
         }
 
         @Override
-        public Number serialize(Number element) {
-            if (Reflect.isIntegerType(cls))
-                return element.longValue();
-            if (Reflect.isFloatingPointType(cls))
-                return element.doubleValue();
-            String msg = "Invalid element '" + element + "' with type " + element.getClass();
-            throw new ConfigurationException(msg); // should not happen, types checked in ctor
-        }
-
-        @Override
-        public Number deserialize(Number element) {
-            if (Reflect.isIntegerType(element.getClass())) {
+        public final Number deserialize(Number element) {
+            // YAML libraries produce Integers, Longs, and Doubles, so these are checked first
+            if ((element instanceof Integer) || (element instanceof Long))
                 return deserializeFromIntegerType(element);
-            }
-            if (Reflect.isFloatingPointType(element.getClass())) {
+            if (element instanceof Double)
+                return deserializeFromFloatingPointType(element);
+            if ((element instanceof Short) || (element instanceof Byte))
+                return deserializeFromIntegerType(element);
+            if (element instanceof Float)
                 return deserializeFromFloatingPointType(element);
-            }
             String clsName = element.getClass().getSimpleName();
             String msg = "Cannot deserialize element '" + element + "' of type " + clsName + ".\n" +
                          "This serializer only supports primitive number types and their wrapper types.";
             throw new ConfigurationException(msg);
         }
 
-        private Number deserializeFromFloatingPointType(Number element) {
-            double value = element.doubleValue();
-
-            if (cls == float.class || cls == Float.class) {
-                if (Double.isNaN(value))
-                    return Float.NaN;
-                if (value == Double.POSITIVE_INFINITY)
-                    return Float.POSITIVE_INFINITY;
-                if (value == Double.NEGATIVE_INFINITY)
-                    return Float.NEGATIVE_INFINITY;
-                if (value != 0.0)
-                    requireFloatingPointInRange(value);
-                return element.floatValue();
-            }
-
-            return value;
-        }
-
-        private Number deserializeFromIntegerType(Number element) {
-            long value = element.longValue();
-
-            if (cls == byte.class || cls == Byte.class) {
-                requireIntegerInRange(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
-                return element.byteValue();
-            }
-
-            if (cls == short.class || cls == Short.class) {
-                requireIntegerInRange(value, Short.MIN_VALUE, Short.MAX_VALUE);
-                return element.shortValue();
-            }
-
-            if (cls == int.class || cls == Integer.class) {
-                requireIntegerInRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
-                return element.intValue();
-            }
-
-            return value;
-        }
-
-        private void requireIntegerInRange(long value, long low, long high) {
+        /**
+         * Converts a {@code Byte}, {@code Short}, {@code Integer}, or {@code Long} to the
+         * number type of this serializer.
+         *
+         * @param element the number
+         * @return the converted number
+         * @throws ConfigurationException if the number does not fit into the range of the
+         *                                number type of this serializer
+         */
+        abstract Number deserializeFromIntegerType(Number element);
+
+        /**
+         * Converts a {@code Float} or {@code Double} to the number type of this serializer.
+         * This method returns a {@code Double} unless this serializer is a serializer for
+         * {@code float} values.
+         *
+         * @param element the number
+         * @return the converted number
+         */
+        Number deserializeFromFloatingPointType(Number element) {
+            return (element instanceof Double) ? element : element.doubleValue();
+        }
+
+        final void requireIntegerInRange(long value, long low, long high) {
             if (value < low || value > high) {
                 String msg = baseExceptionMessage(value) + "It does not fit into the range " +
                              "of valid values [" + low + ", " + high + "].";
@@ -137,7 +147,7 @@ final class Serializers {
             }
         }
 
-        private void requireFloatingPointInRange(double value) {
+        final void requireFloatingPointInRange(double value) {
             final String clsName = cls.getSimpleName();
             if ((value > -Float.MIN_VALUE) && (value < Float.MIN_VALUE)) {
                 String msg = baseExceptionMessage(value) + "It is smaller than the smallest " +
@@ -156,12 +166,134 @@ final class Serializers {
             return "Number " + value + " cannot be converted to type " + clsName + ". ";
         }
 
-        public Class<? extends Number> getNumberClass() {
+        public final Class<? extends Number> getNumberClass() {
             return cls;
         }
     }
 
+    static final class ByteSerializer extends NumberSerializer {
+        ByteSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return element.longValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            final long value = element.longValue();
+            requireIntegerInRange(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+            return (byte) value;
+        }
+    }
+
+    static final class ShortSerializer extends NumberSerializer {
+        ShortSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return element.longValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            final long value = element.longValue();
+            requireIntegerInRange(value, Short.MIN_VALUE, Short.MAX_VALUE);
+            return (short) value;
+        }
+    }
+
+    static final class IntegerSerializer extends NumberSerializer {
+        IntegerSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return element.longValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            if (element instanceof Integer)
+                return element;
+            final long value = element.longValue();
+            requireIntegerInRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            return (int) value;
+        }
+    }
+
+    static final class LongSerializer extends NumberSerializer {
+        LongSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return (element instanceof Long) ? element : element.longValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            return (element instanceof Long) ? element : element.longValue();
+        }
+    }
+
+    static final class FloatSerializer extends NumberSerializer {
+        FloatSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return element.doubleValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            return element.longValue();
+        }
+
+        @Override
+        Number deserializeFromFloatingPointType(Number element) {
+            final double value = element.doubleValue();
+            if (Double.isNaN(value))
+                return Float.NaN;
+            if (value == Double.POSITIVE_INFINITY)
+                return Float.POSITIVE_INFINITY;
+            if (value == Double.NEGATIVE_INFINITY)
+                return Float.NEGATIVE_INFINITY;
+            if (value != 0.0)
+                requireFloatingPointInRange(value);
+            return element.floatValue();
+        }
+    }
+
+    static final class DoubleSerializer extends NumberSerializer {
+        DoubleSerializer(Class<? extends Number> cls) {super(cls);}
+
+        @Override
+        public Number serialize(Number element) {
+            return (element instanceof Double) ? element : element.doubleValue();
+        }
+
+        @Override
+        Number deserializeFromIntegerType(Number element) {
+            return element.longValue();
+        }
+    }
+
     static final class StringSerializer implements Serializer<String, String> {
+        private final StringPool pool;
+
+        public StringSerializer() {
+            this(null);
+        }
+
+        /**
+         * Constructs a new serializer that deduplicates the strings it deserializes
+         * using the given pool.
+         *
+         * @param pool the pool or null, if strings should not be deduplicated
+         */
+        public StringSerializer(StringPool pool) {
+            this.pool = pool;
+        }
+
         @Override
         public String serialize(String element) {
             return element;
@@ -169,7 +301,7 @@ final class Serializers {
 
         @Override
         public String deserialize(String element) {
-            return element;
+            return (pool != null) ? pool.intern(element) : element;
         }
     }
 
@@ -334,10 +466,24 @@ final class Serializers {
     }
 
     static final class EnumSerializer implements Serializer<Enum<?>, String> {
+        private static final ClassValue<EnumIndex> INDICES = new ClassValue<EnumIndex>() {
+            @Override
+            protected EnumIndex computeValue(Class<?> type) {
+                return new EnumIndex(type);
+            }
+        };
         private final Class<? extends Enum<?>> cls;
+        private final boolean caseInsensitive;
+        private final EnumIndex index;
 
         public EnumSerializer(Class<? extends Enum<?>> cls) {
+            this(cls, false);
+        }
+
+        public EnumSerializer(Class<? extends Enum<?>> cls, boolean caseInsensitive) {
             this.cls = Validator.requireNonNull(cls, "enum class");
+            this.caseInsensitive = caseInsensitive;
+            this.index = INDICES.get(cls);
         }
 
         @Override
@@ -347,11 +493,11 @@ final class Serializers {
 
         @Override
         public Enum<?> deserialize(String element) {
-            for (Enum<?> constant : cls.getEnumConstants()) {
-                if (constant.name().equals(element)) {
-                    return constant;
-                }
-            }
+            Enum<?> constant = index.constantsByName.get(element);
+            if ((constant == null) && caseInsensitive)
+                constant = index.constantsByLowerCaseName.get(element.toLowerCase(Locale.ROOT));
+            if (constant != null)
+                return constant;
             String msg = createExceptionMessage(element);
             throw new ConfigurationException(msg);
         }
@@ -367,6 +513,31 @@ final class Serializers {
         public Class<? extends Enum<?>> getEnumCls() {
             return cls;
         }
+
+        /**
+         * An index of the constants of some enum type by their names. Names that only
+         * differ in case are excluded from the case-insensitive index as they are ambiguous.
+         */
+        private static final class EnumIndex {
+            private final Map<String, Enum<?>> constantsByName;
+            private final Map<String, Enum<?>> constantsByLowerCaseName;
+
+            private EnumIndex(Class<?> type) {
+                final Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+                final Map<String, Enum<?>> byName = new HashMap<>(hashCapacity(constants.length));
+                final Map<String, Enum<?>> byLowerCaseName = new HashMap<>(hashCapacity(constants.length));
+                final Set<String> ambiguousNames = new HashSet<>();
+                for (final Enum<?> constant : constants) {
+                    byName.put(constant.name(), constant);
+                    final String lowerCaseName = constant.name().toLowerCase(Locale.ROOT);
+                    if (byLowerCaseName.put(lowerCaseName, constant) != null)
+                        ambiguousNames.add(lowerCaseName);
+                }
+                byLowerCaseName.keySet().removeAll(ambiguousNames);
+                this.constantsByName = Collections.unmodifiableMap(byName);
+                this.constantsByLowerCaseName = Collections.unmodifiableMap(byLowerCaseName);
+            }
+        }
     }
 
     static class CollectionSerializer<S, T, L extends Collection<S>, R extends Collection<T>>
@@ -374,37 +545,79 @@ final class Serializers {
         private final Serializer<S, T> serializer;
         private final boolean outputNulls;
         private final boolean inputNulls;
-        private final Supplier<L> lSupplier;
-        private final Supplier<R> rSupplier;
-
+        private final IntFunction<L> lFactory;
+        private final IntFunction<R> rFactory;
+        private final int parallelismThreshold;
+
+        /**
+         * Constructs a new collection serializer.
+         *
+         * @param serializer  the serializer of the elements
+         * @param outputNulls whether to output null elements
+         * @param inputNulls  whether to input null elements
+         * @param lFactory    creates the deserialized collection, given the number of elements
+         *                    it is going to hold
+         * @param rFactory    creates the serialized collection, given the number of elements
+         *                    it is going to hold
+         * @param parallelismThreshold the minimum number of elements a collection must have to
+         *                             be deserialized in parallel
+         */
         public CollectionSerializer(
                 Serializer<S, T> serializer,
                 boolean outputNulls,
                 boolean inputNulls,
-                Supplier<L> lSupplier,
-                Supplier<R> rSupplier
+                IntFunction<L> lFactory,
+                IntFunction<R> rFactory,
+                int parallelismThreshold
         ) {
             this.serializer = Validator.requireNonNull(serializer, "element serializer");
             this.outputNulls = outputNulls;
             this.inputNulls = inputNulls;
-            this.lSupplier = lSupplier;
-            this.rSupplier = rSupplier;
+            this.lFactory = lFactory;
+            this.rFactory = rFactory;
+            this.parallelismThreshold = parallelismThreshold;
         }
 
         @Override
         public final R serialize(L element) {
-            final Stream<T> stream = outputNulls
-                    ? element.stream().map(s -> s == null ? null : serializer.serialize(s))
-                    : element.stream().filter(Objects::nonNull).map(serializer::serialize);
-            return stream.collect(Collectors.toCollection(rSupplier));
+            final R result = rFactory.apply(element.size());
+            for (final S s : element) {
+                if (s != null)
+                    result.add(serializer.serialize(s));
+                else if (outputNulls)
+                    result.add(null);
+            }
+            return result;
         }
 
         @Override
         public final L deserialize(R element) {
-            final Stream<S> stream = inputNulls
-                    ? element.stream().map(t -> t == null ? null : serializer.deserialize(t))
-                    : element.stream().filter(Objects::nonNull).map(serializer::deserialize);
-            return stream.collect(Collectors.toCollection(lSupplier));
+            if (element.size() >= parallelismThreshold)
+                return deserializeInParallel(element);
+            final L result = lFactory.apply(element.size());
+            for (final T t : element) {
+                if (t != null)
+                    result.add(serializer.deserialize(t));
+                else if (inputNulls)
+                    result.add(null);
+            }
+            return result;
+        }
+
+        private L deserializeInParallel(R element) {
+            final Object[] serialized = element.toArray();
+            final Object[] deserialized = deserializeAllInParallel(serializer, serialized);
+            final L result = lFactory.apply(serialized.length);
+            for (int i = 0; i < serialized.length; i++) {
+                if ((serialized[i] != null) || inputNulls) {
+                    // The following cast won't fail because the array only
+                    // contains the results of the element serializer.
+                    @SuppressWarnings("unchecked")
+                    final S s = (S) deserialized[i];
+                    result.add(s);
+                }
+            }
+            return result;
         }
 
         public final Serializer<S, T> getElementSerializer() {
@@ -414,19 +627,119 @@ final class Serializers {
 
     static final class ListSerializer<S, T> extends CollectionSerializer<S, T, List<S>, List<T>> {
         public ListSerializer(Serializer<S, T> serializer, boolean outputNulls, boolean inputNulls) {
-            super(serializer, outputNulls, inputNulls, ArrayList::new, ArrayList::new);
+            this(serializer, outputNulls, inputNulls, ArrayList::new, Parallel.DISABLED);
+        }
+
+        public ListSerializer(
+                Serializer<S, T> serializer,
+                boolean outputNulls,
+                boolean inputNulls,
+                IntFunction<List<S>> listFactory,
+                int parallelismThreshold
+        ) {
+            super(
+                    serializer, outputNulls, inputNulls,
+                    listFactory,
+                    ArrayList::new,
+                    parallelismThreshold
+            );
         }
     }
 
     static final class SetSerializer<S, T> extends CollectionSerializer<S, T, Set<S>, Set<T>> {
         public SetSerializer(Serializer<S, T> serializer, boolean outputNulls, boolean inputNulls) {
-            super(serializer, outputNulls, inputNulls, HashSet::new, LinkedHashSet::new);
+            this(
+                    serializer, outputNulls, inputNulls,
+                    size -> new HashSet<>(hashCapacity(size)),
+                    Parallel.DISABLED
+            );
+        }
+
+        public SetSerializer(
+                Serializer<S, T> serializer,
+                boolean outputNulls,
+                boolean inputNulls,
+                IntFunction<Set<S>> setFactory,
+                int parallelismThreshold
+        ) {
+            super(
+                    serializer, outputNulls, inputNulls,
+                    setFactory,
+                    size -> new LinkedHashSet<>(hashCapacity(size)),
+                    parallelismThreshold
+            );
         }
     }
 
     static final class SetAsListSerializer<S, T> extends CollectionSerializer<S, T, Set<S>, List<T>> {
         public SetAsListSerializer(Serializer<S, T> serializer, boolean outputNulls, boolean inputNulls) {
-            super(serializer, outputNulls, inputNulls, HashSet::new, ArrayList::new);
+            this(
+                    serializer, outputNulls, inputNulls,
+                    size -> new HashSet<>(hashCapacity(size)),
+                    Parallel.DISABLED
+            );
+        }
+
+        public SetAsListSerializer(
+                Serializer<S, T> serializer,
+                boolean outputNulls,
+                boolean inputNulls,
+                IntFunction<Set<S>> setFactory,
+                int parallelismThreshold
+        ) {
+            super(
+                    serializer, outputNulls, inputNulls,
+                    setFactory,
+                    ArrayList::new,
+                    parallelismThreshold
+            );
+        }
+    }
+
+    /**
+     * Serializes boolean and number map keys to strings and converts them back, for formats
+     * whose object keys are always strings. Keys that are not strings are passed to the
+     * wrapped serializer unchanged during deserialization.
+     *
+     * @param <S> the key type
+     */
+    static final class StringMapKeySerializer<S> implements Serializer<S, Object> {
+        private final Serializer<S, Object> serializer;
+        private final Class<?> keyType;
+
+        @SuppressWarnings("unchecked")
+        StringMapKeySerializer(Serializer<S, ?> serializer, Class<?> keyType) {
+            this.serializer = (Serializer<S, Object>) Validator.requireNonNull(serializer, "serializer");
+            this.keyType = Validator.requireNonNull(keyType, "key type");
+        }
+
+        @Override
+        public Object serialize(S element) {
+            return serializer.serialize(element).toString();
+        }
+
+        @Override
+        public S deserialize(Object element) {
+            return serializer.deserialize(
+                    (element instanceof String) ? parse((String) element) : element
+            );
+        }
+
+        private Object parse(String key) {
+            try {
+                if (Reflect.isIntegerType(keyType)) return Long.valueOf(key);
+                if (Reflect.isFloatingPointType(keyType)) return Double.valueOf(key);
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(cannotConvert(key), e);
+            }
+            if (key.equals("true")) return Boolean.TRUE;
+            if (key.equals("false")) return Boolean.FALSE;
+            throw new ConfigurationException(cannotConvert(key));
+        }
+
+        private String cannotConvert(String key) {
+            return "Map key '" + key + "' cannot be converted to type " +
+                   keyType.getSimpleName() + ".";
         }
     }
 
@@ -435,23 +748,42 @@ final class Serializers {
         private final Serializer<S2, T2> valSerializer;
         private final boolean outputNulls;
         private final boolean inputNulls;
+        private final IntFunction<Map<S1, S2>> mapFactory;
+        private final int parallelismThreshold;
 
         public MapSerializer(
                 Serializer<S1, T1> keySerializer,
                 Serializer<S2, T2> valSerializer,
                 boolean outputNulls,
                 boolean inputNulls
+        ) {
+            this(
+                    keySerializer, valSerializer, outputNulls, inputNulls,
+                    size -> new LinkedHashMap<>(hashCapacity(size)),
+                    Parallel.DISABLED
+            );
+        }
+
+        public MapSerializer(
+                Serializer<S1, T1> keySerializer,
+                Serializer<S2, T2> valSerializer,
+                boolean outputNulls,
+                boolean inputNulls,
+                IntFunction<Map<S1, S2>> mapFactory,
+                int parallelismThreshold
         ) {
             this.keySerializer = Validator.requireNonNull(keySerializer, "key serializer");
             this.valSerializer = Validator.requireNonNull(valSerializer, "value serializer");
             this.outputNulls = outputNulls;
             this.inputNulls = inputNulls;
+            this.mapFactory = Validator.requireNonNull(mapFactory, "map factory");
+            this.parallelismThreshold = parallelismThreshold;
         }
 
         @Override
         public Map<T1, T2> serialize(Map<S1, S2> element) {
             // cannot work with Collectors.toMap as is doesn't allow null values
-            final Map<T1, T2> result = new LinkedHashMap<>();
+            final Map<T1, T2> result = new LinkedHashMap<>(hashCapacity(element.size()));
             for (final Map.Entry<S1, S2> entry : element.entrySet()) {
                 if (!outputNulls && isEntryNull(entry))
                     continue;
@@ -466,8 +798,10 @@ final class Serializers {
 
         @Override
         public Map<S1, S2> deserialize(Map<T1, T2> element) {
+            if (element.size() >= parallelismThreshold)
+                return deserializeInParallel(element);
             // cannot work with Collectors.toMap as is doesn't allow null values
-            final Map<S1, S2> result = new LinkedHashMap<>();
+            final Map<S1, S2> result = mapFactory.apply(element.size());
             for (final Map.Entry<T1, T2> entry : element.entrySet()) {
                 if (!inputNulls && isEntryNull(entry))
                     continue;
@@ -480,6 +814,41 @@ final class Serializers {
             return result;
         }
 
+        private Map<S1, S2> deserializeInParallel(Map<T1, T2> element) {
+            final int size = element.size();
+            final Object[] keys = new Object[size];
+            final Object[] values = new Object[size];
+            int length = 0;
+            for (final Map.Entry<T1, T2> entry : element.entrySet()) {
+                if (!inputNulls && isEntryNull(entry))
+                    continue;
+                keys[length] = entry.getKey();
+                values[length] = entry.getValue();
+                length++;
+            }
+
+            final Object[] deserializedKeys = new Object[length];
+            final Object[] deserializedValues = new Object[length];
+            Parallel.forEachIndex(length, i -> {
+                // The following casts won't fail because the arrays only
+                // contain the keys and values of the serialized map.
+                @SuppressWarnings("unchecked") final T1 t1key = (T1) keys[i];
+                @SuppressWarnings("unchecked") final T2 t2val = (T2) values[i];
+                deserializedKeys[i] = (t1key == null) ? null : keySerializer.deserialize(t1key);
+                deserializedValues[i] = (t2val == null) ? null : valSerializer.deserialize(t2val);
+            });
+
+            final Map<S1, S2> result = mapFactory.apply(length);
+            for (int i = 0; i < length; i++) {
+                // The following casts won't fail because the arrays only
+                // contain the results of the key and value serializers.
+                @SuppressWarnings("unchecked") final S1 s1key = (S1) deserializedKeys[i];
+                @SuppressWarnings("unchecked") final S2 s2val = (S2) deserializedValues[i];
+                result.put(s1key, s2val);
+            }
+            return result;
+        }
+
         private static boolean isEntryNull(Map.Entry<?, ?> entry) {
             return (entry == null) || (entry.getKey() == null) || (entry.getValue() == null);
         }
@@ -493,42 +862,195 @@ final class Serializers {
         }
     }
 
+    /**
+     * Wraps the lists, sets, or maps deserialized by some other serializer into unmodifiable
+     * views. Empty and single-element results are replaced by the compact implementations
+     * returned by {@link Collections#emptyList()}, {@link Collections#singletonList(Object)},
+     * and their set and map counterparts.
+     *
+     * @param <S> the type of the deserialized list, set, or map
+     * @param <T> the serialized type
+     */
+    static final class UnmodifiableSerializer<S, T> implements Serializer<S, T> {
+        private final Serializer<S, T> serializer;
+
+        public UnmodifiableSerializer(Serializer<S, T> serializer) {
+            this.serializer = Validator.requireNonNull(serializer, "serializer");
+        }
+
+        @Override
+        public T serialize(S element) {
+            return serializer.serialize(element);
+        }
+
+        @Override
+        public S deserialize(T element) {
+            final S result = serializer.deserialize(element);
+            final Object unmodifiable;
+            if (result instanceof List<?>) {
+                unmodifiable = toUnmodifiableList((List<?>) result);
+            } else if (result instanceof Set<?>) {
+                unmodifiable = toUnmodifiableSet((Set<?>) result);
+            } else if (result instanceof Map<?, ?>) {
+                unmodifiable = toUnmodifiableMap((Map<?, ?>) result);
+            } else {
+                return result;
+            }
+            // The following cast won't fail because this serializer is only used
+            // for elements whose declared type is List, Set, or Map.
+            @SuppressWarnings("unchecked")
+            final S s = (S) unmodifiable;
+            return s;
+        }
+
+        private static <E> List<E> toUnmodifiableList(List<E> list) {
+            switch (list.size()) {
+                case 0:
+                    return Collections.emptyList();
+                case 1:
+                    return Collections.singletonList(list.get(0));
+                default:
+                    return Collections.unmodifiableList(list);
+            }
+        }
+
+        private static <E> Set<E> toUnmodifiableSet(Set<E> set) {
+            switch (set.size()) {
+                case 0:
+                    return Collections.emptySet();
+                case 1:
+                    return Collections.singleton(set.iterator().next());
+                default:
+                    return Collections.unmodifiableSet(set);
+            }
+        }
+
+        private static <K, V> Map<K, V> toUnmodifiableMap(Map<K, V> map) {
+            switch (map.size()) {
+                case 0:
+                    return Collections.emptyMap();
+                case 1:
+                    final Map.Entry<K, V> entry = map.entrySet().iterator().next();
+                    return Collections.singletonMap(entry.getKey(), entry.getValue());
+                default:
+                    return Collections.unmodifiableMap(map);
+            }
+        }
+
+        public Serializer<S, T> getSerializer() {
+            return serializer;
+        }
+    }
+
+    /**
+     * Defers the deserialization of values to the first call of {@link Lazy#get()}.
+     * Values that have not been deserialized yet are serialized to their original
+     * serialized form.
+     *
+     * @param <S> the type of the value held by the {@code Lazy}
+     * @param <T> the serialized type
+     */
+    static final class LazySerializer<S, T> implements Serializer<Lazy<S>, Object> {
+        private final Serializer<S, T> serializer;
+
+        public LazySerializer(Serializer<S, T> serializer) {
+            this.serializer = Validator.requireNonNull(serializer, "value serializer");
+        }
+
+        @Override
+        public Object serialize(Lazy<S> element) {
+            return element.serialize(serializer);
+        }
+
+        @Override
+        public Lazy<S> deserialize(Object element) {
+            // This cast can lead to a ClassCastException when the value is deserialized
+            // if the type of the serialized value does not match the type the value
+            // serializer expects. Lazy#get wraps that exception.
+            @SuppressWarnings("unchecked")
+            final Serializer<S, Object> valueSerializer = (Serializer<S, Object>) serializer;
+            return Lazy.unloaded(element, valueSerializer);
+        }
+
+        public Serializer<S, T> getValueSerializer() {
+            return serializer;
+        }
+    }
+
     static final class ArraySerializer<T1, T2> implements Serializer<T1[], List<T2>> {
         private final Class<?> componentType;
         private final Serializer<T1, T2> serializer;
         private final boolean outputNulls;
         private final boolean inputNulls;
+        private final int parallelismThreshold;
 
         public ArraySerializer(
                 Class<?> componentType,
                 Serializer<T1, T2> serializer,
                 boolean outputNulls,
                 boolean inputNulls
+        ) {
+            this(componentType, serializer, outputNulls, inputNulls, Parallel.DISABLED);
+        }
+
+        public ArraySerializer(
+                Class<?> componentType,
+                Serializer<T1, T2> serializer,
+                boolean outputNulls,
+                boolean inputNulls,
+                int parallelismThreshold
         ) {
             this.componentType = Validator.requireNonNull(componentType, "component type");
             this.serializer = Validator.requireNonNull(serializer, "element serializer");
             this.outputNulls = outputNulls;
             this.inputNulls = inputNulls;
+            this.parallelismThreshold = parallelismThreshold;
         }
 
         @Override
         public List<T2> serialize(T1[] element) {
-            final Stream<T2> stream = outputNulls
-                    ? Arrays.stream(element).map(s -> s == null ? null : serializer.serialize(s))
-                    : Arrays.stream(element).filter(Objects::nonNull).map(serializer::serialize);
-            return stream.collect(Collectors.toList());
+            final List<T2> result = new ArrayList<>(element.length);
+            for (final T1 t1 : element) {
+                if (t1 != null)
+                    result.add(serializer.serialize(t1));
+                else if (outputNulls)
+                    result.add(null);
+            }
+            return result;
         }
 
         @Override
         public T1[] deserialize(List<T2> element) {
-            final Stream<T1> stream = inputNulls
-                    ? element.stream().map(t -> t == null ? null : serializer.deserialize(t))
-                    : element.stream().filter(Objects::nonNull).map(serializer::deserialize);
             // The following cast won't fail because we choose the elementSerializer based
             // on the componentType.
             @SuppressWarnings("unchecked")
-            IntFunction<T1[]> f = value -> (T1[]) Reflect.newArray(componentType, value);
-            return stream.toArray(f);
+            final T1[] result = (T1[]) Reflect.newArray(componentType, element.size());
+            if (element.size() >= parallelismThreshold)
+                return deserializeInParallel(element, result);
+            int length = 0;
+            for (final T2 t2 : element) {
+                if (t2 != null)
+                    result[length++] = serializer.deserialize(t2);
+                else if (inputNulls)
+                    result[length++] = null;
+            }
+            return (length == result.length) ? result : Arrays.copyOf(result, length);
+        }
+
+        private T1[] deserializeInParallel(List<T2> element, T1[] result) {
+            final Object[] serialized = element.toArray();
+            final Object[] deserialized = deserializeAllInParallel(serializer, serialized);
+            int length = 0;
+            for (int i = 0; i < serialized.length; i++) {
+                if ((serialized[i] != null) || inputNulls) {
+                    // The following cast won't fail because the array only
+                    // contains the results of the element serializer.
+                    @SuppressWarnings("unchecked")
+                    final T1 t1 = (T1) deserialized[i];
+                    result[length++] = t1;
+                }
+            }
+            return (length == result.length) ? result : Arrays.copyOf(result, length);
         }
 
         public Class<?> getComponentType() {
@@ -540,11 +1062,101 @@ final class Serializers {
         }
     }
 
+    /**
+     * A fixed-size, unmodifiable list that is backed by a primitive array. Elements are boxed
+     * lazily, i.e. only when they are accessed, so that serializing a primitive array neither
+     * requires an intermediate stream nor a fully materialized list of boxed values.
+     * <p>
+     * The primitive array serializers back their views with a copy of the serialized array.
+     * Serialized configurations are not necessarily consumed right away (they may, for
+     * example, be written asynchronously), so a view must not reflect changes that are
+     * made to the original array after it has been serialized.
+     *
+     * @param <E> the (boxed) type of the elements of this list
+     */
+    static final class PrimitiveArrayView<E> extends AbstractList<E> implements RandomAccess {
+        private final int size;
+        private final IntFunction<? extends E> elementAccessor;
+
+        PrimitiveArrayView(int size, IntFunction<? extends E> elementAccessor) {
+            this.size = size;
+            this.elementAccessor = elementAccessor;
+        }
+
+        @Override
+        public E get(int index) {
+            if ((index < 0) || (index >= size)) {
+                String msg = "Index " + index + " is out of bounds for length " + size + ".";
+                throw new IndexOutOfBoundsException(msg);
+            }
+            return elementAccessor.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Serializes primitive arrays into compact byte arrays that are produced by a
+     * {@link PrimitiveArrayCodec}. Configuration stores that support binary data output
+     * these byte arrays directly (e.g. as {@code !!binary} scalars in YAML).
+     * <p>
+     * When deserializing, this serializer additionally accepts base64 encoded strings and
+     * the lists the default primitive array serializers produce. That way, configurations
+     * that have been written before the binary encoding was enabled can still be read.
+     */
+    static final class BinaryPrimitiveArraySerializer implements Serializer<Object, Object> {
+        private final Class<?> componentType;
+        private final Serializer<Object, Object> listSerializer;
+
+        public BinaryPrimitiveArraySerializer(
+                Class<?> componentType,
+                Serializer<?, ?> listSerializer
+        ) {
+            this.componentType = Validator.requireNonNull(componentType, "component type");
+            // The following cast won't fail because the list serializer is chosen
+            // based on the componentType and only ever receives lists.
+            @SuppressWarnings("unchecked")
+            Serializer<Object, Object> serializer = (Serializer<Object, Object>)
+                    Validator.requireNonNull(listSerializer, "list serializer");
+            this.listSerializer = serializer;
+        }
+
+        @Override
+        public Object serialize(Object element) {
+            return PrimitiveArrayCodec.encode(element);
+        }
+
+        @Override
+        public Object deserialize(Object element) {
+            if (element instanceof byte[])
+                return PrimitiveArrayCodec.decode((byte[]) element, componentType);
+            if (element instanceof String) {
+                final byte[] bytes = Base64.getMimeDecoder().decode((String) element);
+                return PrimitiveArrayCodec.decode(bytes, componentType);
+            }
+            if (element instanceof List<?>)
+                return listSerializer.deserialize(element);
+
+            String msg = "Cannot deserialize element '" + element + "' of type " +
+                         element.getClass().getSimpleName() + " to a " +
+                         componentType.getSimpleName() + " array.\n" +
+                         "Only binary data, base64 encoded strings, and lists are supported.";
+            throw new ConfigurationException(msg);
+        }
+
+        public Class<?> getComponentType() {
+            return componentType;
+        }
+    }
+
     static final class PrimitiveBooleanArraySerializer implements Serializer<Object, List<Boolean>> {
         @Override
         public List<Boolean> serialize(Object element) {
-            final boolean[] array = (boolean[]) element;
-            return IntStream.range(0, array.length).mapToObj(i -> array[i]).collect(Collectors.toList());
+            final boolean[] array = ((boolean[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> array[i]);
         }
 
         @Override
@@ -562,10 +1174,8 @@ final class Serializers {
 
         @Override
         public List<String> serialize(Object element) {
-            final char[] array = (char[]) element;
-            return IntStream.range(0, array.length)
-                    .mapToObj(i -> serializer.serialize(array[i]))
-                    .collect(Collectors.toList());
+            final char[] array = ((char[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> String.valueOf(array[i]));
         }
 
         @Override
@@ -581,14 +1191,12 @@ final class Serializers {
 
     static final class PrimitiveByteArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(byte.class);
+        private static final NumberSerializer serializer = new ByteSerializer(byte.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final byte[] array = (byte[]) element;
-            return IntStream.range(0, array.length).
-                    mapToObj(i -> serializer.serialize(array[i]))
-                    .collect(Collectors.toList());
+            final byte[] array = ((byte[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> (long) array[i]);
         }
 
         @Override
@@ -604,14 +1212,12 @@ final class Serializers {
 
     static final class PrimitiveShortArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(short.class);
+        private static final NumberSerializer serializer = new ShortSerializer(short.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final short[] array = (short[]) element;
-            return IntStream.range(0, array.length)
-                    .mapToObj(i -> serializer.serialize(array[i]))
-                    .collect(Collectors.toList());
+            final short[] array = ((short[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> (long) array[i]);
         }
 
         @Override
@@ -627,12 +1233,12 @@ final class Serializers {
 
     static final class PrimitiveIntegerArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(int.class);
+        private static final NumberSerializer serializer = new IntegerSerializer(int.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final int[] array = (int[]) element;
-            return Arrays.stream(array).mapToObj(serializer::serialize).collect(Collectors.toList());
+            final int[] array = ((int[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> (long) array[i]);
         }
 
         @Override
@@ -648,12 +1254,12 @@ final class Serializers {
 
     static final class PrimitiveLongArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(long.class);
+        private static final NumberSerializer serializer = new LongSerializer(long.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final long[] array = (long[]) element;
-            return Arrays.stream(array).mapToObj(serializer::serialize).collect(Collectors.toList());
+            final long[] array = ((long[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> array[i]);
         }
 
         @Override
@@ -669,14 +1275,12 @@ final class Serializers {
 
     static final class PrimitiveFloatArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(float.class);
+        private static final NumberSerializer serializer = new FloatSerializer(float.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final float[] array = (float[]) element;
-            return IntStream.range(0, array.length)
-                    .mapToObj(i -> serializer.serialize(array[i]))
-                    .collect(Collectors.toList());
+            final float[] array = ((float[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> (double) array[i]);
         }
 
         @Override
@@ -692,12 +1296,12 @@ final class Serializers {
 
     static final class PrimitiveDoubleArraySerializer
             implements Serializer<Object, List<Number>> {
-        private static final NumberSerializer serializer = new NumberSerializer(double.class);
+        private static final NumberSerializer serializer = new DoubleSerializer(double.class);
 
         @Override
         public List<Number> serialize(Object element) {
-            final double[] array = (double[]) element;
-            return Arrays.stream(array).mapToObj(serializer::serialize).collect(Collectors.toList());
+            final double[] array = ((double[]) element).clone();
+            return new PrimitiveArrayView<>(array.length, i -> array[i]);
         }
 
         @Override
@@ -0,0 +1,176 @@
+package de.exlll.configlib;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A bounded pool of strings that is used to deduplicate the strings of deserialized
+ * configurations.
+ * <p>
+ * The pool only holds weak references to its strings, so that strings which are no longer
+ * used by any configuration can be garbage collected. Once the pool holds its maximum
+ * number of strings, strings that are not yet pooled are returned as they are until some
+ * of the pooled strings have been garbage collected.
+ * <p>
+ * Instances of this class are thread-safe and can be shared by any number of
+ * configuration stores. Strings are distributed over a number of independently locked
+ * stripes by their hash codes, so that concurrent deserializations (e.g. parallel ones)
+ * rarely contend for the same lock. Each stripe holds an equal share of the maximum
+ * number of strings.
+ *
+ * @see ConfigurationProperties.Builder#setStringPool(StringPool)
+ */
+public final class StringPool {
+    /**
+     * The maximum number of strings the {@link #shared() shared} pool holds.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+    private static final int MAX_STRIPES = 64;
+    private static final boolean COMPACT_STRINGS =
+            !System.getProperty("java.specification.version", "1.8").startsWith("1.");
+    private static final StringPool SHARED = new StringPool(DEFAULT_MAX_SIZE);
+
+    private final Stripe[] stripes;
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Constructs a new, empty pool that holds at most {@code maxSize} strings.
+     *
+     * @param maxSize the maximum number of strings
+     * @throws IllegalArgumentException if {@code maxSize} is less than 1
+     */
+    public StringPool(int maxSize) {
+        if (maxSize < 1) {
+            String msg = "The maximum size of a string pool must be positive but was " +
+                         maxSize + ".";
+            throw new IllegalArgumentException(msg);
+        }
+        final int stripeCount = stripeCountFor(maxSize);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // distribute the remainder so that the stripes add up to maxSize
+            final int stripeSize = maxSize / stripeCount + ((i < maxSize % stripeCount) ? 1 : 0);
+            stripes[i] = new Stripe(stripeSize);
+        }
+    }
+
+    private static int stripeCountFor(int maxSize) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final int wanted = Math.min(MAX_STRIPES, Math.min(maxSize, 4 * processors));
+        // a power of two so that a stripe can be selected by masking the hash code
+        return Integer.highestOneBit(Math.max(1, wanted));
+    }
+
+    /**
+     * Returns the pool that is shared by all configuration stores of this library which
+     * use a shared pool.
+     *
+     * @return the shared pool
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the pooled string that equals the given string. If no such string exists,
+     * the given string is added to this pool and returned, unless this pool is full.
+     *
+     * @param string the string
+     * @return a string equal to the given one
+     * @throws NullPointerException if {@code string} is null
+     */
+    public String intern(String string) {
+        requireNonNull(string, "string");
+        final String pooled = stripeOf(string).intern(string);
+        if (pooled != string)
+            bytesSaved.add(estimateSize(string));
+        return pooled;
+    }
+
+    private Stripe stripeOf(String string) {
+        final int hash = string.hashCode();
+        // spread the higher bits because the lower ones of similar strings are often equal
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns an estimate of the number of bytes that have been saved by returning pooled
+     * strings instead of their duplicates since this pool was created or last cleared.
+     * The estimate assumes that every duplicate would otherwise have been retained and
+     * takes the compact strings of Java 9 and later into account.
+     *
+     * @return the estimated number of bytes saved
+     */
+    public long estimatedBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Returns the number of strings in this pool. Strings that have been garbage
+     * collected may still be counted.
+     *
+     * @return the number of strings
+     */
+    public int size() {
+        int size = 0;
+        for (final Stripe stripe : stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    /**
+     * Removes all strings from this pool and resets the number of bytes saved.
+     */
+    public void clear() {
+        for (final Stripe stripe : stripes)
+            stripe.clear();
+        bytesSaved.reset();
+    }
+
+    private static long estimateSize(String string) {
+        // a string object plus its backing array, where both the object and the array
+        // are 8-byte aligned; since Java 9, strings that only contain Latin-1 characters
+        // are stored with one byte per character
+        final int bytesPerChar = (COMPACT_STRINGS && isLatin1(string)) ? 1 : 2;
+        final long arraySize = 16 + (long) bytesPerChar * string.length();
+        return 24 + ((arraySize + 7) & ~7L);
+    }
+
+    private static boolean isLatin1(String string) {
+        for (int i = 0, length = string.length(); i < length; i++) {
+            if (string.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    private static final class Stripe {
+        private final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized String intern(String string) {
+            final WeakReference<String> reference = strings.get(string);
+            final String pooled = (reference != null) ? reference.get() : null;
+            if (pooled != null)
+                return pooled;
+            if (strings.size() < maxSize)
+                strings.put(string, new WeakReference<>(string));
+            return string;
+        }
+
+        synchronized int size() {
+            return strings.size();
+        }
+
+        synchronized void clear() {
+            strings.clear();
+        }
+    }
+}
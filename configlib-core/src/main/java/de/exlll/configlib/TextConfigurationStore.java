@@ -0,0 +1,33 @@
+package de.exlll.configlib;
+
+/**
+ * Instances of this class read and write configurations that are stored as text. In
+ * addition to the byte-based methods of {@code IOStreamConfigurationStore}, they can read
+ * configurations from character sequences and write them to appendables, so that the text
+ * doesn't have to be encoded into bytes first.
+ *
+ * @param <T> the configuration type
+ */
+public interface TextConfigurationStore<T> extends IOStreamConfigurationStore<T> {
+    /**
+     * Reads a configuration from the given character sequence.
+     *
+     * @param text the text the configuration is read from
+     * @return a newly created configuration initialized with values read from {@code text}
+     * @throws ConfigurationException if the configuration cannot be deserialized
+     * @throws NullPointerException   if {@code text} is null
+     */
+    T read(CharSequence text);
+
+    /**
+     * Writes a configuration instance to the given {@code Appendable}.
+     *
+     * @param configuration the configuration
+     * @param appendable    the appendable the configuration is written to
+     * @throws ConfigurationException if the configuration contains invalid values or
+     *                                cannot be serialized
+     * @throws NullPointerException   if any argument is null
+     * @throws RuntimeException       if appending throws an exception
+     */
+    void writeTo(T configuration, Appendable appendable);
+}
@@ -2,13 +2,12 @@ package de.exlll.configlib;
 
 import de.exlll.configlib.ConfigurationElements.FieldElement;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -19,14 +18,43 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
     protected final Class<T> type;
     protected final ConfigurationProperties properties;
     protected final NameFormatter formatter;
+    private final List<E> elements;
+    /**
+     * The formatted names of the elements, in the same order as the elements.
+     */
+    private final String[] formattedNames;
+    /**
+     * Maps the formatted name of each element to the index of the first element with that
+     * name. If several elements have the same formatted name, the index of the next element
+     * with the same name is stored in {@link #nextIndexWithSameName}.
+     */
+    private final Map<String, Integer> indexByFormattedName;
+    private final int[] nextIndexWithSameName;
+    /**
+     * The names of the properties that hold the type information of polymorphic
+     * supertypes. These are not reported as unknown keys.
+     */
+    private final Set<String> polymorphicProperties;
     protected final Map<String, Serializer<?, ?>> serializers;
+    /**
+     * The post-processors whose conditions match the elements, in the same order as
+     * the elements.
+     */
+    private final UnaryOperator<?>[][] elementPostProcessors;
     protected final UnaryOperator<T> postProcessor;
 
     protected TypeSerializer(Class<T> type, ConfigurationProperties properties) {
         this.type = requireNonNull(type, "type");
         this.properties = requireNonNull(properties, "configuration properties");
-        this.formatter = properties.getNameFormatter();
+        this.formatter = properties.getCachingNameFormatter();
+        this.elements = Collections.unmodifiableList(new ArrayList<>(extractElements()));
+        this.formattedNames = formatElementNames();
+        this.indexByFormattedName = new HashMap<>(Serializers.hashCapacity(formattedNames.length));
+        this.nextIndexWithSameName = new int[formattedNames.length];
+        indexElementsByFormattedName();
+        this.polymorphicProperties = findPolymorphicProperties(type);
         this.serializers = buildSerializerMap();
+        this.elementPostProcessors = selectElementPostProcessors();
         this.postProcessor = createPostProcessorFromAnnotatedMethod();
         requireSerializableElements();
     }
@@ -38,6 +66,36 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
         return new ConfigurationSerializer<>(type, properties);
     }
 
+    private String[] formatElementNames() {
+        final String[] result = new String[elements.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = formatter.format(elements.get(i).name());
+        return result;
+    }
+
+    private void indexElementsByFormattedName() {
+        // iterate backwards so that the chains of same names are in ascending order
+        for (int i = formattedNames.length - 1; i >= 0; i--) {
+            final Integer next = indexByFormattedName.put(formattedNames[i], i);
+            nextIndexWithSameName[i] = (next == null) ? -1 : next;
+        }
+    }
+
+    private static Set<String> findPolymorphicProperties(Class<?> type) {
+        final Set<String> result = new HashSet<>();
+        final Deque<Class<?>> types = new ArrayDeque<>(Collections.singletonList(type));
+        while (!types.isEmpty()) {
+            final Class<?> cls = types.removeFirst();
+            final Polymorphic polymorphic = cls.getDeclaredAnnotation(Polymorphic.class);
+            if (polymorphic != null)
+                result.add(polymorphic.property());
+            if (cls.getSuperclass() != null)
+                types.addLast(cls.getSuperclass());
+            types.addAll(Arrays.asList(cls.getInterfaces()));
+        }
+        return result.isEmpty() ? Collections.emptySet() : result;
+    }
+
     Map<String, Serializer<?, ?>> buildSerializerMap() {
         final SerializerSelector selector = new SerializerSelector(properties);
         try {
@@ -55,15 +113,15 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
     public final Map<?, ?> serialize(T configuration) {
         final Map<String, Object> result = new LinkedHashMap<>();
 
-        for (final E element : elements()) {
+        for (int i = 0, size = elements.size(); i < size; i++) {
+            final E element = elements.get(i);
             final Object elementValue = element.value(configuration);
 
             if ((elementValue == null) && !properties.outputNulls())
                 continue;
 
             final Object serializedValue = serializeElement(element, elementValue);
-            final String formattedName = formatter.format(element.name());
-            result.put(formattedName, serializedValue);
+            result.put(formattedNames[i], serializedValue);
         }
 
         return result;
@@ -112,54 +170,178 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
     protected final Object[] deserializeConfigurationElements(
             Map<?, ?> serializedConfiguration
     ) {
-        final List<E> elements = elements();
-        final Object[] result = new Object[elements.size()];
-
-        for (int i = 0, size = elements.size(); i < size; i++) {
+        final int size = elements.size();
+        final Object[] serializedValues = new Object[size];
+        final boolean[] present = new boolean[size];
+        final Set<String> unknownKeys = collectSerializedValues(
+                serializedConfiguration, serializedValues, present
+        );
+
+        final Object[] result = new Object[size];
+        final boolean[] deserialized = deserializeCompositeElementsInParallel(
+                serializedValues, result
+        );
+
+        for (int i = 0; i < size; i++) {
             final E element = elements.get(i);
-            final String formattedName = formatter.format(element.name());
 
-            if (!serializedConfiguration.containsKey(formattedName)) {
-                final Object defaultValue = getDefaultValueOf(element);
-                result[i] = applyPostProcessorForElement(element, defaultValue);
+            if ((deserialized != null) && deserialized[i]) {
+                result[i] = applyPostProcessorForElement(i, result[i]);
+                continue;
+            }
+
+            if (!present[i]) {
+                final Object defaultValue = getDefaultValueOf(i);
+                result[i] = applyPostProcessorForElement(i, defaultValue);
                 continue;
             }
 
-            final Object serializedValue = serializedConfiguration.get(formattedName);
+            final Object serializedValue = serializedValues[i];
 
             if ((serializedValue == null) && properties.inputNulls()) {
                 // This statement (and hence the whole block) could be removed,
                 // but in my opinion the code is clearer this way.
                 result[i] = null;
             } else if (serializedValue == null) {
-                result[i] = getDefaultValueOf(element);
+                result[i] = getDefaultValueOf(i);
             } else {
                 result[i] = deserialize(element, serializedValue);
             }
 
-            result[i] = applyPostProcessorForElement(element, result[i]);
+            result[i] = applyPostProcessorForElement(i, result[i]);
         }
 
+        if (unknownKeys != null)
+            properties.getUnknownKeysHandler().accept(type, Collections.unmodifiableSet(unknownKeys));
+
         return result;
     }
 
-    private Object applyPostProcessorForElement(
-            ConfigurationElement<?> element,
-            Object deserializeValue
+    /**
+     * Iterates the serialized configuration once and stores the value of each element at
+     * the index of that element.
+     *
+     * @return the keys that do not belong to any element, or null if there are no such keys
+     * or if unknown keys are not collected
+     */
+    private Set<String> collectSerializedValues(
+            Map<?, ?> serializedConfiguration,
+            Object[] serializedValues,
+            boolean[] present
     ) {
-        Object result = deserializeValue;
+        final boolean collectUnknownKeys = properties.getUnknownKeysHandler() != null;
+        Set<String> unknownKeys = null;
+
+        for (final Map.Entry<?, ?> entry : serializedConfiguration.entrySet()) {
+            final Object key = entry.getKey();
+            final Integer index = indexByFormattedName.get(key);
+            if (index != null) {
+                for (int i = index; i >= 0; i = nextIndexWithSameName[i]) {
+                    serializedValues[i] = entry.getValue();
+                    present[i] = true;
+                }
+            } else if (collectUnknownKeys && !polymorphicProperties.contains(key)) {
+                if (unknownKeys == null) unknownKeys = new LinkedHashSet<>();
+                unknownKeys.add(String.valueOf(key));
+            }
+        }
 
-        boolean postProcessed = false;
-        for (final Map.Entry<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>> entry : properties.getPostProcessorsByCondition().entrySet()) {
-            final Predicate<? super ConfigurationElement<?>> condition = entry.getKey();
+        return unknownKeys;
+    }
 
-            if (!condition.test(element)) continue;
+    /**
+     * Deserializes the values of all elements that are configurations, collections, maps,
+     * or arrays in parallel if parallel deserialization is enabled, there are at least
+     * two such values, and together they contain at least as many entries as the parallel
+     * deserialization threshold. Post-processors are not applied by this method.
+     *
+     * @return null, if nothing was deserialized, or an array that is {@code true} at the
+     * indices of those elements whose values were deserialized into {@code result}
+     */
+    private boolean[] deserializeCompositeElementsInParallel(
+            Object[] serializedValues,
+            Object[] result
+    ) {
+        // nested configurations that are deserialized as part of a parallel task
+        // are deserialized sequentially, as the top level is already split up
+        if (!properties.parallelDeserialization() || Parallel.inParallelTask())
+            return null;
+
+        final int size = elements.size();
+        final int[] indices = new int[size];
+        final Object[] values = new Object[size];
+        int count = 0;
+        long entries = 0;
+        for (int i = 0; i < size; i++) {
+            final E element = elements.get(i);
+            if (!isComposite(serializers.get(element.name()))) continue;
+            final Object serializedValue = serializedValues[i];
+            if (serializedValue == null) continue;
+            indices[count] = i;
+            values[count] = serializedValue;
+            entries += entriesOf(serializedValue);
+            count++;
+        }
 
-            final UnaryOperator<?> postProcessor = entry.getValue();
-            result = tryApplyPostProcessorForElement(element, postProcessor, result);
-            postProcessed = true;
+        // small configurations are faster to deserialize than to split up
+        if ((count < 2) || (entries < properties.getParallelDeserializationThreshold()))
+            return null;
+
+        final boolean[] deserialized = new boolean[size];
+        Parallel.forEachIndex(count, 1, j -> {
+            final int i = indices[j];
+            result[i] = deserialize(elements.get(i), values[j]);
+        });
+        for (int j = 0; j < count; j++)
+            deserialized[indices[j]] = true;
+        return deserialized;
+    }
+
+    private static int entriesOf(Object serializedValue) {
+        if (serializedValue instanceof Collection<?>)
+            return ((Collection<?>) serializedValue).size();
+        if (serializedValue instanceof Map<?, ?>)
+            return ((Map<?, ?>) serializedValue).size();
+        return 1;
+    }
+
+    private static boolean isComposite(Serializer<?, ?> serializer) {
+        return (serializer instanceof TypeSerializer) ||
+               (serializer instanceof PolymorphicSerializer) ||
+               (serializer instanceof Serializers.CollectionSerializer) ||
+               (serializer instanceof Serializers.MapSerializer) ||
+               (serializer instanceof Serializers.ArraySerializer) ||
+               (serializer instanceof Serializers.UnmodifiableSerializer);
+    }
+
+    private UnaryOperator<?>[][] selectElementPostProcessors() {
+        final Map<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>> postProcessorsByCondition =
+                properties.getPostProcessorsByCondition();
+        final UnaryOperator<?>[][] result = new UnaryOperator<?>[elements.size()][];
+        final UnaryOperator<?>[] none = new UnaryOperator<?>[0];
+
+        for (int i = 0; i < result.length; i++) {
+            final E element = elements.get(i);
+            final List<UnaryOperator<?>> postProcessors = new ArrayList<>();
+            for (final Map.Entry<Predicate<? super ConfigurationElement<?>>, UnaryOperator<?>> entry : postProcessorsByCondition.entrySet()) {
+                if (entry.getKey().test(element))
+                    postProcessors.add(entry.getValue());
+            }
+            result[i] = postProcessors.isEmpty() ? none : postProcessors.toArray(none);
         }
 
+        return result;
+    }
+
+    private Object applyPostProcessorForElement(int index, Object deserializeValue) {
+        final E element = elements.get(index);
+        final UnaryOperator<?>[] postProcessors = elementPostProcessors[index];
+        Object result = deserializeValue;
+
+        for (final UnaryOperator<?> postProcessor : postProcessors)
+            result = tryApplyPostProcessorForElement(element, postProcessor, result);
+
+        final boolean postProcessed = postProcessors.length > 0;
         if ((result == null) && postProcessed)
             requirePostProcessorDoesNotReturnNullForPrimitiveElement(element);
         else if (result == null)
@@ -278,19 +460,44 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
             throw new ConfigurationException(msg);
         }
 
-        return object -> {
-            if (method.getReturnType() == void.class) {
-                Reflect.invoke(method, object);
+        if (returnType == void.class) {
+            final MethodHandle handle = Reflect.unreflect(
+                    method, MethodType.methodType(void.class, Object.class)
+            );
+            return object -> {
+                try {
+                    handle.invokeExact((Object) object);
+                } catch (Throwable e) {
+                    throw postProcessMethodFailed(e);
+                }
                 return object;
+            };
+        }
+
+        final MethodHandle handle = Reflect.unreflect(
+                method, MethodType.methodType(Object.class, Object.class)
+        );
+        return object -> {
+            try {
+                // The following cast won't fail because our last two checks from above
+                // guarantee that the return type of the method equals T at this point.
+                @SuppressWarnings("unchecked")
+                T result = (T) (Object) handle.invokeExact((Object) object);
+                return result;
+            } catch (Throwable e) {
+                throw postProcessMethodFailed(e);
             }
-            // The following cast won't fail because our last two checks from above
-            // guarantee that the return type of the method equals T at this point.
-            @SuppressWarnings("unchecked")
-            T result = (T) Reflect.invoke(method, object);
-            return result;
         };
     }
 
+    private static RuntimeException postProcessMethodFailed(Throwable throwable) {
+        if (throwable instanceof RuntimeException)
+            return (RuntimeException) throwable;
+        if (throwable instanceof Error)
+            throw (Error) throwable;
+        return new RuntimeException(throwable);
+    }
+
     // NOTE: this was originally a check intended for records
     final boolean isAccessorMethod(Method method) {
         return false;
@@ -300,16 +507,31 @@ abstract class TypeSerializer<T, E extends ConfigurationElement<?>> implements S
 
     protected abstract String baseDeserializeExceptionMessage(E element, Object value);
 
-    protected abstract List<E> elements();
+    /**
+     * Returns the configuration elements of the type of this serializer. This method is
+     * called once when this serializer is constructed.
+     *
+     * @return the configuration elements
+     */
+    protected abstract List<E> extractElements();
+
+    /**
+     * Returns the configuration elements of the type of this serializer.
+     *
+     * @return an unmodifiable list of the configuration elements
+     */
+    protected final List<E> elements() {
+        return elements;
+    }
 
     /**
      * Returns the default value of a field or record component before any
      * post-processing has been performed.
      *
-     * @param element the configuration element
+     * @param index the index of the configuration element in {@link #elements()}
      * @return the default value for that element
      */
-    protected abstract Object getDefaultValueOf(E element);
+    protected abstract Object getDefaultValueOf(int index);
 
     abstract T newDefaultInstance();
 }
@@ -0,0 +1,99 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTreeCodecTest {
+    private static final int LIST = 10;
+    private static final int MAP = 11;
+
+    private static Object nestedLists(int depth) {
+        Object result = Collections.emptyList();
+        for (int i = 1; i < depth; i++)
+            result = Collections.singletonList(result);
+        return result;
+    }
+
+    // each level is a collection of size one, the innermost value is null
+    private static byte[] nestedCollectionBytes(int depth, int tag) {
+        final byte[] bytes = new byte[3 * depth + 1];
+        int position = 0;
+        for (int i = 0; i < depth; i++) {
+            bytes[position++] = (byte) tag;
+            bytes[position++] = 1;
+            // the key of a map entry is null, its value is the next level
+            if (tag == MAP) bytes[position++] = 0;
+        }
+        return Arrays.copyOf(bytes, position + 1);
+    }
+
+    private static void assertMalformed(byte[] bytes) {
+        final ConfigurationException exception = assertThrows(
+                ConfigurationException.class,
+                () -> BinaryTreeCodec.decode(bytes)
+        );
+        assertEquals(
+                "The binary data is not a valid encoding of a configuration.",
+                exception.getMessage()
+        );
+    }
+
+    @Test
+    void treesRoundTripWithTheirTypes() {
+        final Map<Object, Object> tree = new LinkedHashMap<>();
+        tree.put("null", null);
+        tree.put("booleans", Arrays.asList(true, false));
+        tree.put("numbers", Arrays.asList(
+                -1, Integer.MIN_VALUE, Long.MAX_VALUE, BigInteger.TEN.pow(30), 0.5f, -0.0
+        ));
+        tree.put("set", new LinkedHashSet<>(Arrays.asList("a", "b")));
+        tree.put(1, "\u00e4\ud83d\ude00");
+
+        final Object decoded = BinaryTreeCodec.decode(BinaryTreeCodec.encode(tree));
+
+        assertEquals(tree, decoded);
+        final List<?> numbers = (List<?>) ((Map<?, ?>) decoded).get("numbers");
+        assertEquals(Long.class, numbers.get(2).getClass());
+        assertEquals(Float.class, numbers.get(4).getClass());
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) BinaryTreeCodec.decode(
+                BinaryTreeCodec.encode(new byte[]{1, 2})
+        ));
+    }
+
+    @Test
+    void treesNestedAtMostMaxDepthLevelsDeepRoundTrip() {
+        final Object tree = nestedLists(BinaryTreeCodec.MAX_DEPTH);
+        assertEquals(tree, BinaryTreeCodec.decode(BinaryTreeCodec.encode(tree)));
+    }
+
+    @Test
+    void encodeRejectsTreesNestedDeeperThanMaxDepth() {
+        final Object tree = nestedLists(BinaryTreeCodec.MAX_DEPTH + 1);
+        final IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> BinaryTreeCodec.encode(tree)
+        );
+        assertEquals(
+                "Trees that are nested more than " + BinaryTreeCodec.MAX_DEPTH +
+                " levels deep cannot be encoded.",
+                exception.getMessage()
+        );
+    }
+
+    @Test
+    void decodeRejectsBytesNestedDeeperThanMaxDepth() {
+        assertNotNull(BinaryTreeCodec.decode(nestedCollectionBytes(BinaryTreeCodec.MAX_DEPTH, LIST)));
+        assertMalformed(nestedCollectionBytes(BinaryTreeCodec.MAX_DEPTH + 1, LIST));
+        assertMalformed(nestedCollectionBytes(BinaryTreeCodec.MAX_DEPTH + 1, MAP));
+    }
+
+    @Test
+    void decodeDoesNotOverflowTheStack() {
+        assertMalformed(nestedCollectionBytes(1_000_000, LIST));
+        assertMalformed(nestedCollectionBytes(1_000_000, MAP));
+    }
+}
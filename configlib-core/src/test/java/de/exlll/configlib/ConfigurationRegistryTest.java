@@ -0,0 +1,224 @@
+package de.exlll.configlib;
+
+import de.exlll.configlib.ConfigurationRegistry.Entry;
+import de.exlll.configlib.ConfigurationRegistry.ReloadResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationRegistryTest {
+    private static final Path FILE = Paths.get("config.yml");
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ConfigurationRegistry registry = new ConfigurationRegistry(executor);
+
+    private static final class TestStore implements FileConfigurationStore<String> {
+        private final Supplier<String> update;
+
+        TestStore(Supplier<String> update) {
+            this.update = update;
+        }
+
+        @Override
+        public void save(String configuration, Path configurationFile) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String load(Path configurationFile) {
+            return update.get();
+        }
+
+        @Override
+        public String update(Path configurationFile) {
+            return update.get();
+        }
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void loadAllReturnsResultsInRegistrationOrder() throws Exception {
+        final CountDownLatch lastLoaded = new CountDownLatch(1);
+        registry.register("first", new TestStore(() -> {
+            // the first configuration is loaded last
+            try {
+                assertTrue(lastLoaded.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return "a";
+        }), FILE);
+        registry.register("second", new TestStore(() -> "b"), FILE);
+        registry.register("third", new TestStore(() -> {
+            lastLoaded.countDown();
+            return "c";
+        }), FILE);
+
+        final List<ReloadResult> results = await(registry.loadAll());
+
+        final List<String> names = new ArrayList<>();
+        for (ReloadResult result : results) {
+            assertTrue(result.succeeded());
+            names.add(result.name());
+        }
+        assertEquals("[first, second, third]", names.toString());
+        assertEquals("a", registry.entries().get(0).get());
+    }
+
+    @Test
+    void initialLoadIsNotCompletedBeforeLoadAll() throws Exception {
+        final Entry<String> entry = registry.register("config", new TestStore(() -> "a"), FILE);
+        final CompletableFuture<List<ReloadResult>> initialLoad = registry.initialLoad();
+
+        assertFalse(initialLoad.isDone());
+        assertNull(entry.get());
+
+        registry.loadAll();
+        assertEquals(1, await(initialLoad).size());
+        assertEquals("a", entry.get());
+        assertSame(await(registry.initialLoad()).get(0), await(registry.loadAll()).get(0));
+    }
+
+    @Test
+    void configurationsRegisteredAfterLoadAllAreLoadedRightAway() throws Exception {
+        await(registry.loadAll());
+
+        final Entry<String> entry = registry.register("late", new TestStore(() -> "a"), FILE);
+
+        assertTrue(await(entry.initialLoad()).succeeded());
+        assertEquals("a", entry.get());
+        assertTrue(await(registry.initialLoad()).isEmpty());
+    }
+
+    @Test
+    void registeringTheSameNameTwiceThrowsException() {
+        registry.register("config", new TestStore(() -> "a"), FILE);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> registry.register("config", new TestStore(() -> "b"), FILE)
+        );
+    }
+
+    @Test
+    void failedLoadsAreReportedAndDoNotCallListeners() throws Exception {
+        final RuntimeException exception = new ConfigurationException("invalid");
+        final Entry<String> entry = registry.register("config", new TestStore(() -> {
+            throw exception;
+        }), FILE);
+        final AtomicInteger calls = new AtomicInteger();
+        entry.addListener(configuration -> calls.incrementAndGet());
+
+        final ReloadResult result = await(registry.loadAll()).get(0);
+
+        assertFalse(result.succeeded());
+        assertSame(exception, result.exception());
+        assertTrue(result.listenerExceptions().isEmpty());
+        assertEquals(0, calls.get());
+        assertNull(entry.get());
+    }
+
+    @Test
+    void listenerExceptionsAreReportedAndDoNotStopOtherListeners() throws Exception {
+        final Entry<String> entry = registry.register("config", new TestStore(() -> "a"), FILE);
+        final RuntimeException exception = new IllegalStateException("listener");
+        final List<String> received = new CopyOnWriteArrayList<>();
+        entry.addListener(configuration -> {
+            throw exception;
+        });
+        entry.addListener(received::add);
+
+        final ReloadResult result = await(registry.loadAll()).get(0);
+
+        assertTrue(result.succeeded());
+        assertEquals(1, result.listenerExceptions().size());
+        assertSame(exception, result.listenerExceptions().get(0));
+        assertEquals("[a]", received.toString());
+    }
+
+    @Test
+    void errorsCompleteTheInitialLoadExceptionally() throws Exception {
+        final Error error = new Error("fatal");
+        final Entry<String> failing = registry.register("failing", new TestStore(() -> {
+            throw error;
+        }), FILE);
+        registry.register("config", new TestStore(() -> "a"), FILE);
+
+        final ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> await(registry.loadAll()));
+        assertSame(error, rootCauseOf(exception));
+
+        final ExecutionException entryException =
+                assertThrows(ExecutionException.class, () -> await(failing.initialLoad()));
+        assertSame(error, rootCauseOf(entryException));
+    }
+
+    private static Throwable rootCauseOf(Throwable throwable) {
+        Throwable result = throwable;
+        while (result.getCause() != null)
+            result = result.getCause();
+        return result;
+    }
+
+    @Test
+    void reloadsOfTheSameConfigurationDoNotOverlap() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Entry<String> entry = registry.register("config", new TestStore(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            running.decrementAndGet();
+            return "a";
+        }), FILE);
+
+        final List<CompletableFuture<ReloadResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            futures.add(entry.reload());
+        for (CompletableFuture<ReloadResult> future : futures)
+            assertTrue(await(future).succeeded());
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void reloadAllReloadsEveryConfigurationConcurrently() throws Exception {
+        final int count = 4;
+        final CyclicBarrier barrier = new CyclicBarrier(count);
+        for (int i = 0; i < count; i++) {
+            final String value = "value" + i;
+            registry.register("config" + i, new TestStore(() -> {
+                // only returns if all configurations are loaded at the same time
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                return value;
+            }), FILE);
+        }
+
+        final List<ReloadResult> results = await(registry.reloadAll());
+
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue(results.get(i).succeeded(), results.get(i).toString());
+            assertEquals("config" + i, results.get(i).name());
+            assertEquals("value" + i, registry.entries().get(i).get());
+        }
+    }
+}
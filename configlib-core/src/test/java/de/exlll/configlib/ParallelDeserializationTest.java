@@ -0,0 +1,92 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDeserializationTest {
+    @Configuration
+    static final class Part {
+        int value;
+        transient Thread deserializedBy;
+
+        @PostProcess
+        void recordThread() {
+            deserializedBy = Thread.currentThread();
+        }
+    }
+
+    @Configuration
+    static final class Whole {
+        Part first = new Part();
+        Part second = new Part();
+        List<Integer> numbers = new ArrayList<>();
+    }
+
+    private static TypeSerializer<Whole, ?> newSerializer(int threshold) {
+        return TypeSerializer.newSerializerFor(
+                Whole.class,
+                ConfigurationProperties.newBuilder()
+                        .parallelDeserialization(true)
+                        .parallelDeserializationThreshold(threshold)
+                        .build()
+        );
+    }
+
+    private static Whole newWhole(int numbers) {
+        final Whole whole = new Whole();
+        whole.first.value = 1;
+        whole.second.value = 2;
+        for (int i = 0; i < numbers; i++) whole.numbers.add(i);
+        return whole;
+    }
+
+    @Test
+    void smallConfigurationsAreDeserializedByTheCallingThread() {
+        final TypeSerializer<Whole, ?> serializer = newSerializer(1000);
+        final Whole whole = serializer.deserialize(serializer.serialize(newWhole(10)));
+        assertSame(Thread.currentThread(), whole.first.deserializedBy);
+        assertSame(Thread.currentThread(), whole.second.deserializedBy);
+    }
+
+    @Test
+    void largeConfigurationsAreDeserializedCorrectly() {
+        final TypeSerializer<Whole, ?> serializer = newSerializer(100);
+        final Whole expected = newWhole(10_000);
+        final Whole whole = serializer.deserialize(serializer.serialize(expected));
+        assertEquals(1, whole.first.value);
+        assertEquals(2, whole.second.value);
+        assertEquals(expected.numbers, whole.numbers);
+    }
+
+    @Test
+    void unrelatedCommonPoolTasksAreNotParallelTasks() {
+        assertFalse(CompletableFuture.supplyAsync(Parallel::inParallelTask).join());
+    }
+
+    @Test
+    void actionsOfParallelTasksRunInParallelTasks() {
+        final AtomicBoolean allInTask = new AtomicBoolean(true);
+        Parallel.forEachIndex(100, 1, i -> {
+            if (!Parallel.inParallelTask()) allInTask.set(false);
+        });
+        assertTrue(allInTask.get());
+        assertFalse(Parallel.inParallelTask());
+    }
+
+    @Test
+    void configurationsLoadedByCommonPoolTasksAreDeserializedCorrectly() {
+        final TypeSerializer<Whole, ?> serializer = newSerializer(100);
+        final Whole expected = newWhole(10_000);
+        final Map<?, ?> serialized = serializer.serialize(expected);
+        final Whole whole = CompletableFuture
+                .supplyAsync(() -> serializer.deserialize(serialized))
+                .join();
+        assertEquals(expected.numbers, whole.numbers);
+        assertEquals(2, whole.second.value);
+    }
+}
@@ -0,0 +1,196 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveArrayCodecTest {
+    private static Object roundTrip(Object array) {
+        return PrimitiveArrayCodec.decode(
+                PrimitiveArrayCodec.encode(array),
+                array.getClass().getComponentType()
+        );
+    }
+
+    private static void assertMalformed(byte[] bytes, Class<?> componentType) {
+        final ConfigurationException exception = assertThrows(
+                ConfigurationException.class,
+                () -> PrimitiveArrayCodec.decode(bytes, componentType)
+        );
+        assertEquals(
+                "The binary data is not a valid encoding of a " +
+                componentType.getSimpleName() + " array.",
+                exception.getMessage()
+        );
+    }
+
+    @Test
+    void emptyArraysRoundTrip() {
+        assertArrayEquals(new boolean[0], (boolean[]) roundTrip(new boolean[0]));
+        assertArrayEquals(new byte[0], (byte[]) roundTrip(new byte[0]));
+        assertArrayEquals(new char[0], (char[]) roundTrip(new char[0]));
+        assertArrayEquals(new short[0], (short[]) roundTrip(new short[0]));
+        assertArrayEquals(new int[0], (int[]) roundTrip(new int[0]));
+        assertArrayEquals(new long[0], (long[]) roundTrip(new long[0]));
+        assertArrayEquals(new float[0], (float[]) roundTrip(new float[0]));
+        assertArrayEquals(new double[0], (double[]) roundTrip(new double[0]));
+    }
+
+    @Test
+    void booleanArraysOfLengthsNotDivisibleByEightRoundTrip() {
+        for (int length = 1; length <= 17; length++) {
+            final boolean[] array = new boolean[length];
+            for (int i = 0; i < length; i++) array[i] = (i % 3 == 0);
+            assertArrayEquals(array, (boolean[]) roundTrip(array), "length " + length);
+        }
+        final boolean[] allTrue = new boolean[13];
+        Arrays.fill(allTrue, true);
+        assertArrayEquals(allTrue, (boolean[]) roundTrip(allTrue));
+    }
+
+    @Test
+    void byteArraysAreCopied() {
+        final byte[] array = {Byte.MIN_VALUE, -1, 0, 1, Byte.MAX_VALUE};
+        final byte[] encoded = PrimitiveArrayCodec.encode(array);
+        assertNotSame(array, encoded);
+        final byte[] decoded = (byte[]) PrimitiveArrayCodec.decode(encoded, byte.class);
+        assertNotSame(encoded, decoded);
+        assertArrayEquals(array, decoded);
+    }
+
+    @Test
+    void charArrayEdgeValuesRoundTrip() {
+        final char[] array = {Character.MIN_VALUE, 'a', '\u00ff', '\ud800', Character.MAX_VALUE};
+        assertArrayEquals(array, (char[]) roundTrip(array));
+    }
+
+    @Test
+    void shortArrayEdgeValuesRoundTrip() {
+        final short[] array = {
+                Short.MIN_VALUE, Short.MAX_VALUE, Short.MIN_VALUE, 0, -1, 1, Short.MAX_VALUE
+        };
+        assertArrayEquals(array, (short[]) roundTrip(array));
+    }
+
+    @Test
+    void intArrayEdgeValuesRoundTrip() {
+        // the differences between these values overflow
+        final int[] array = {
+                Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1, 1, Integer.MAX_VALUE
+        };
+        assertArrayEquals(array, (int[]) roundTrip(array));
+    }
+
+    @Test
+    void longArrayEdgeValuesRoundTrip() {
+        final long[] array = {
+                Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, 0, -1, 1, Long.MAX_VALUE
+        };
+        assertArrayEquals(array, (long[]) roundTrip(array));
+    }
+
+    @Test
+    void floatArrayEdgeValuesRoundTripBitForBit() {
+        final float[] array = {
+                Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, 0f, -0f,
+                Float.NaN, Float.intBitsToFloat(0x7fc12345),
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        final float[] decoded = (float[]) roundTrip(array);
+        assertEquals(array.length, decoded.length);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(
+                    Float.floatToRawIntBits(array[i]),
+                    Float.floatToRawIntBits(decoded[i]),
+                    "index " + i
+            );
+        }
+    }
+
+    @Test
+    void doubleArrayEdgeValuesRoundTripBitForBit() {
+        final double[] array = {
+                Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 0d, -0d,
+                Double.NaN, Double.longBitsToDouble(0x7ff8000012345678L),
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+        };
+        final double[] decoded = (double[]) roundTrip(array);
+        assertEquals(array.length, decoded.length);
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(
+                    Double.doubleToRawLongBits(array[i]),
+                    Double.doubleToRawLongBits(decoded[i]),
+                    "index " + i
+            );
+        }
+    }
+
+    @Test
+    void sortedValuesAreEncodedCompactly() {
+        final int[] array = new int[1000];
+        for (int i = 0; i < array.length; i++) array[i] = 1_000_000 + i;
+        // 2 bytes for the length, 3 for the first value, and 1 for each difference
+        assertEquals(2 + 3 + 999, PrimitiveArrayCodec.encode(array).length);
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        final Object[] arrays = {
+                new boolean[]{true, false, true, true, false, true, false, true, true},
+                new char[]{'a', '\uffff'},
+                new short[]{1, Short.MIN_VALUE},
+                new int[]{1, Integer.MIN_VALUE},
+                new long[]{1, Long.MIN_VALUE},
+                new float[]{1f, 2f},
+                new double[]{1d, 2d},
+        };
+        for (Object array : arrays) {
+            final byte[] encoded = PrimitiveArrayCodec.encode(array);
+            final Class<?> componentType = array.getClass().getComponentType();
+            for (int length = 0; length < encoded.length; length++) {
+                assertMalformed(Arrays.copyOf(encoded, length), componentType);
+            }
+        }
+    }
+
+    @Test
+    void trailingBytesAreRejected() {
+        final Object[] arrays = {
+                new boolean[]{true}, new char[]{'a'}, new short[]{1}, new int[]{1},
+                new long[]{1}, new float[]{1f}, new double[]{1d},
+        };
+        for (Object array : arrays) {
+            final byte[] encoded = PrimitiveArrayCodec.encode(array);
+            assertMalformed(
+                    Arrays.copyOf(encoded, encoded.length + 1),
+                    array.getClass().getComponentType()
+            );
+        }
+    }
+
+    @Test
+    void lengthsThatCannotFitIntoTheInputAreRejected() {
+        // length Integer.MAX_VALUE followed by a single element
+        final byte[] bytes = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 0};
+        assertMalformed(bytes, int.class);
+        assertMalformed(bytes, boolean.class);
+        // a negative length
+        assertMalformed(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f}, long.class);
+    }
+
+    @Test
+    void overlongVarIntsAreRejected() {
+        final byte[] bytes = {1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0};
+        assertMalformed(bytes, int.class);
+    }
+
+    @Test
+    void valuesOutOfRangeAreRejected() {
+        // one char of value 0x10000
+        assertMalformed(new byte[]{1, (byte) 0x80, (byte) 0x80, 0x04}, char.class);
+        // one short of value 32768, zigzag-encoded as 65536
+        assertMalformed(new byte[]{1, (byte) 0x80, (byte) 0x80, 0x04}, short.class);
+    }
+}
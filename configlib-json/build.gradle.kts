@@ -0,0 +1,4 @@
+plugins {
+    `core-config`
+    `libs-config`
+}
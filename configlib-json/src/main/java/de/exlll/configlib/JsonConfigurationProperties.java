@@ -0,0 +1,140 @@
+package de.exlll.configlib;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An extension of the {@code FileConfigurationProperties} class that allows configuring properties
+ * that are more specific to JSON files.
+ * <p>
+ * Because JSON does not support comments, the header and footer of these properties, as
+ * well as the comments of configuration elements, are not written. Because JSON does not
+ * have a set type, sets must be serialized as lists. Because the keys of JSON objects are
+ * strings, the keys of maps whose key type is a boolean or number type are serialized as
+ * strings and converted back when a configuration is loaded. The default charset of these
+ * properties is UTF-8.
+ */
+public final class JsonConfigurationProperties extends FileConfigurationProperties {
+    private final boolean prettyPrinting;
+
+    /**
+     * Constructs a new instance of this class with values taken from the given builder.
+     *
+     * @param builder the builder used to initialize the fields of this class
+     * @throws IllegalArgumentException if the builder is configured to not serialize sets
+     *                                  as lists
+     * @throws NullPointerException     if the builder or any of its values is null
+     */
+    public JsonConfigurationProperties(Builder<?> builder) {
+        super(builder);
+        this.prettyPrinting = builder.prettyPrinting;
+        if (!serializeSetsAsLists()) {
+            String msg = "JSON configurations must serialize sets as lists because JSON " +
+                         "does not have a set type.";
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    /**
+     * Constructs a new {@code Builder} with default values.
+     *
+     * @return newly constructed {@code Builder}
+     */
+    public static Builder<?> newBuilder() {
+        return new BuilderImpl();
+    }
+
+    public Builder<?> toBuilder() {
+        return new BuilderImpl(this);
+    }
+
+    private static final class BuilderImpl extends Builder<BuilderImpl> {
+        private BuilderImpl() {}
+
+        private BuilderImpl(JsonConfigurationProperties properties) {super(properties);}
+
+        @Override
+        protected BuilderImpl getThis() {return this;}
+
+        @Override
+        public JsonConfigurationProperties build() {return new JsonConfigurationProperties(this);}
+    }
+
+    /**
+     * A builder class for constructing {@code JsonConfigurationProperties}.
+     *
+     * @param <B> the type of builder
+     */
+    public static abstract class Builder<B extends Builder<B>>
+            extends FileConfigurationProperties.Builder<B> {
+        private boolean prettyPrinting = true;
+
+        /**
+         * The default constructor.
+         */
+        protected Builder() {
+            charset(StandardCharsets.UTF_8);
+            serializeMapKeysAsStrings(true);
+        }
+
+        /**
+         * A constructor that initializes this builder with values taken from the properties object.
+         *
+         * @param properties the properties object the values are taken from
+         * @throws NullPointerException if {@code properties} is null
+         */
+        protected Builder(JsonConfigurationProperties properties) {
+            super(properties);
+            this.prettyPrinting = properties.prettyPrinting;
+        }
+
+        /**
+         * Sets whether JSON should be written with line breaks and indentation. If this
+         * option is disabled, JSON is written without any whitespace.
+         * <p>
+         * The default value is {@code true}.
+         *
+         * @param prettyPrinting whether to pretty print JSON
+         * @return this builder
+         */
+        public final B prettyPrinting(boolean prettyPrinting) {
+            this.prettyPrinting = prettyPrinting;
+            return getThis();
+        }
+
+        /**
+         * Builds a {@code ConfigurationProperties} instance.
+         *
+         * @return newly constructed {@code ConfigurationProperties}
+         */
+        public abstract JsonConfigurationProperties build();
+
+        /**
+         * Returns this builder.
+         *
+         * @return this builder
+         */
+        protected abstract B getThis();
+    }
+
+    /**
+     * Returns whether JSON is written with line breaks and indentation.
+     *
+     * @return whether to pretty print JSON
+     */
+    public boolean prettyPrinting() {
+        return prettyPrinting;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!super.equals(o)) return false;
+        final JsonConfigurationProperties other = (JsonConfigurationProperties) o;
+        return prettyPrinting == other.prettyPrinting;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Boolean.hashCode(prettyPrinting);
+    }
+}
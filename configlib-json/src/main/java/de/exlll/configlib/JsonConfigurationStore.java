@@ -0,0 +1,191 @@
+package de.exlll.configlib;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A configuration store for JSON configurations. This class provides two pairs of methods:
+ * One pair for loading configurations from and saving them as JSON text files, and a second pair
+ * for reading configurations from input streams and writing them to output streams.
+ * <p>
+ * Configurations can also be read from and written to byte arrays, byte buffers, character
+ * sequences, and appendables, which is useful for configurations that are stored in
+ * databases or sent as messages.
+ * <p>
+ * Configurations are serialized the same way they are serialized by the YAML configuration
+ * store, so that the values of a configuration are the same, regardless of whether it is
+ * stored as JSON or as YAML.
+ *
+ * @param <T> the configuration type
+ */
+public final class JsonConfigurationStore<T> implements
+        FileConfigurationStore<T>,
+        TextConfigurationStore<T> {
+
+    private final JsonConfigurationProperties properties;
+    private final TypeSerializer<T, ?> serializer;
+
+    /**
+     * Constructs a new store.
+     *
+     * @param configurationType the type of configuration
+     * @param properties        the properties
+     * @throws NullPointerException if any argument is null
+     */
+    public JsonConfigurationStore(Class<T> configurationType, JsonConfigurationProperties properties) {
+        requireNonNull(configurationType, "configuration type");
+        this.properties = requireNonNull(properties, "properties");
+        this.serializer = TypeSerializer.newSerializerFor(configurationType, properties);
+    }
+
+    @Override
+    public void write(T configuration, OutputStream outputStream) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(outputStream, "output stream");
+        final Map<?, ?> serializedConfiguration = serializer.serialize(configuration);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, properties.getCharset()))) {
+            new JsonWriter(writer, properties.prettyPrinting()).writeDocument(serializedConfiguration);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The JSON is encoded with the charset of the properties of this store.
+     *
+     * @param configuration {@inheritDoc}
+     * @param buffer        {@inheritDoc}
+     */
+    @Override
+    public void writeTo(T configuration, ByteBuffer buffer) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(buffer, "buffer");
+        StringBuilder builder = new StringBuilder();
+        writeTo(configuration, builder);
+        CharsetEncoding.encode(builder, properties.getCharset(), buffer);
+    }
+
+    @Override
+    public void writeTo(T configuration, Appendable appendable) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(appendable, "appendable");
+        final Map<?, ?> serializedConfiguration = serializer.serialize(configuration);
+        try {
+            new JsonWriter(appendable, properties.prettyPrinting()).writeDocument(serializedConfiguration);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void save(T configuration, Path configurationFile) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(configurationFile, "configuration file");
+        // the JSON is produced before the file is opened, which truncates it, so that
+        // a configuration that cannot be serialized leaves the file unchanged
+        final StringBuilder json = new StringBuilder();
+        writeTo(configuration, json);
+        tryCreateParentDirectories(configurationFile);
+        try (Writer writer = Files.newBufferedWriter(configurationFile, properties.getCharset())) {
+            writer.append(json);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void tryCreateParentDirectories(Path configurationFile) {
+        Path parent = configurationFile.toAbsolutePath().getParent();
+        if (!Files.exists(parent) && properties.createParentDirectories()) {
+            try {
+                Files.createDirectories(parent);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Override
+    public T read(InputStream inputStream) {
+        requireNonNull(inputStream, "input stream");
+        Reader reader = new InputStreamReader(inputStream, properties.getCharset());
+        try {
+            Object json = new JsonReader(reader).readDocument();
+            Map<?, ?> conf = requireJsonObject(json, "the input stream");
+            return serializer.deserialize(conf);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T read(CharSequence text) {
+        requireNonNull(text, "text");
+        try {
+            Object json = new JsonReader(new StringReader(text.toString())).readDocument();
+            Map<?, ?> conf = requireJsonObject(json, "the given text");
+            return serializer.deserialize(conf);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public T load(Path configurationFile) {
+        requireNonNull(configurationFile, "configuration file");
+        try (BufferedReader reader = Files.newBufferedReader(configurationFile, properties.getCharset())) {
+            Object json = new JsonReader(reader).readDocument();
+            Map<?, ?> conf = requireJsonObject(json, "the configuration file at " + configurationFile);
+            return serializer.deserialize(conf);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Map<?, ?> requireJsonObject(Object json, String source) {
+        if (json == null) {
+            String msg = "The contents of " + source + " are empty or only contain null.";
+            throw new ConfigurationException(msg);
+        }
+
+        if (!(json instanceof Map<?, ?>)) {
+            String msg = String.format(
+                    "The contents of %s do not represent a configuration. " +
+                    "A valid configuration contains a JSON object but instead a " +
+                    "'%s' was found.",
+                    source, json.getClass()
+            );
+            throw new ConfigurationException(msg);
+        }
+
+        return (Map<?, ?>) json;
+    }
+
+    @Override
+    public T update(Path configurationFile) {
+        requireNonNull(configurationFile, "configuration file");
+        if (Files.exists(configurationFile)) {
+            T configuration = load(configurationFile);
+            save(configuration, configurationFile);
+            return configuration;
+        }
+        T defaultConfiguration = serializer.newDefaultInstance();
+        save(defaultConfiguration, configurationFile);
+        return defaultConfiguration;
+    }
+}
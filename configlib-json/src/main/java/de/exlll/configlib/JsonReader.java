@@ -0,0 +1,313 @@
+package de.exlll.configlib;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A streaming reader that parses JSON into maps, lists, and scalars.
+ * <p>
+ * The values produced by this reader match those that are produced when parsing the
+ * equivalent YAML: Objects are parsed into {@code LinkedHashMap} and arrays into
+ * {@code ArrayList} instances. Integers are parsed into {@code Integer}, {@code Long},
+ * or {@code BigInteger} instances, depending on their size, and all other numbers are
+ * parsed into {@code Double} instances. In addition to standard JSON, the tokens
+ * {@code NaN}, {@code Infinity}, and {@code -Infinity} are accepted as numbers.
+ * <p>
+ * The keys of JSON objects are always parsed into strings. Converting them to the key
+ * types of maps is left to the serializers, which are configured to do so by the
+ * {@link JsonConfigurationProperties}.
+ * <p>
+ * Objects and arrays can be nested at most {@value #MAX_DEPTH} levels deep. Deeper
+ * documents are rejected like invalid ones instead of overflowing the stack.
+ */
+final class JsonReader {
+    private static final int EOF = -1;
+    static final int MAX_DEPTH = 1000;
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder builder = new StringBuilder();
+    private int position = 0;
+    private int limit = 0;
+    private int line = 1;
+    private long lineStart = 0;
+    private long consumed = 0;
+    private int depth = 0;
+
+    JsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the JSON document, returning null if the document is empty.
+     *
+     * @return the value of the document or null
+     * @throws ConfigurationException if the document is not valid JSON
+     * @throws IOException            if reading throws an exception
+     */
+    Object readDocument() throws IOException {
+        if (skipWhitespace() == EOF) return null;
+        final Object result = readValue();
+        if (skipWhitespace() != EOF) throw syntaxError("end of input");
+        return result;
+    }
+
+    private Object readValue() throws IOException {
+        final int c = skipWhitespace();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                position++;
+                return readString();
+            case 't':
+                readLiteral("true");
+                return Boolean.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Boolean.FALSE;
+            case 'n':
+                readLiteral("null");
+                return null;
+            case 'N':
+                readLiteral("NaN");
+                return Double.NaN;
+            case 'I':
+                readLiteral("Infinity");
+                return Double.POSITIVE_INFINITY;
+            default:
+                if ((c == '-') || isDigit(c)) return readNumber();
+                throw syntaxError("a value");
+        }
+    }
+
+    private Map<Object, Object> readObject() throws IOException {
+        enterNestedValue();
+        position++;
+        final Map<Object, Object> result = new LinkedHashMap<>();
+        if (skipWhitespace() == '}') {
+            position++;
+            depth--;
+            return result;
+        }
+        while (true) {
+            if (skipWhitespace() != '"') throw syntaxError("a string");
+            position++;
+            final String key = readString();
+            if (skipWhitespace() != ':') throw syntaxError("':'");
+            position++;
+            result.put(key, readValue());
+            final int c = skipWhitespace();
+            position++;
+            if (c == '}') {
+                depth--;
+                return result;
+            }
+            if (c != ',') {
+                position--;
+                throw syntaxError("',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        enterNestedValue();
+        position++;
+        final List<Object> result = new ArrayList<>();
+        if (skipWhitespace() == ']') {
+            position++;
+            depth--;
+            return result;
+        }
+        while (true) {
+            result.add(readValue());
+            final int c = skipWhitespace();
+            position++;
+            if (c == ']') {
+                depth--;
+                return result;
+            }
+            if (c != ',') {
+                position--;
+                throw syntaxError("',' or ']'");
+            }
+        }
+    }
+
+    private void enterNestedValue() {
+        if (++depth <= MAX_DEPTH) return;
+        final long column = consumed + position - lineStart + 1;
+        String msg = "Invalid JSON at line " + line + ", column " + column + ": Objects and " +
+                     "arrays must not be nested more than " + MAX_DEPTH + " levels deep.";
+        throw new ConfigurationException(msg);
+    }
+
+    private String readString() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            if ((position == limit) && !fill()) throw syntaxError("'\"'");
+            // copy runs of plain characters at once
+            final int start = position;
+            char c = 0;
+            while ((position < limit) && ((c = buffer[position]) != '"') &&
+                   (c != '\\') && (c >= 0x20))
+                position++;
+            builder.append(buffer, start, position - start);
+            if (position == limit) continue;
+            if (c == '"') {
+                position++;
+                return builder.toString();
+            }
+            if (c < 0x20) throw syntaxError("'\"'");
+            position++;
+            builder.append(readEscapedCharacter());
+        }
+    }
+
+    private char readEscapedCharacter() throws IOException {
+        final int c = peek();
+        if (c != EOF) position++;
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int digit = (peek() == EOF) ? -1 : Character.digit(peek(), 16);
+                    if (digit < 0) throw syntaxError("a hexadecimal digit");
+                    position++;
+                    result = (result << 4) | digit;
+                }
+                return (char) result;
+            }
+            default:
+                if (c != EOF) position--;
+                throw syntaxError("an escape sequence");
+        }
+    }
+
+    private Object readNumber() throws IOException {
+        builder.setLength(0);
+        boolean integer = true;
+        if (peek() == '-') {
+            builder.append('-');
+            position++;
+            if (peek() == 'I') {
+                readLiteral("Infinity");
+                return Double.NEGATIVE_INFINITY;
+            }
+        }
+        if (peek() == '0') {
+            builder.append('0');
+            position++;
+        } else {
+            readDigits();
+        }
+        if (peek() == '.') {
+            integer = false;
+            builder.append('.');
+            position++;
+            readDigits();
+        }
+        if ((peek() == 'e') || (peek() == 'E')) {
+            integer = false;
+            builder.append('e');
+            position++;
+            if ((peek() == '+') || (peek() == '-')) {
+                builder.append((char) peek());
+                position++;
+            }
+            readDigits();
+        }
+        final String number = builder.toString();
+        return integer ? parseInteger(number) : Double.valueOf(number);
+    }
+
+    private void readDigits() throws IOException {
+        if (!isDigit(peek())) throw syntaxError("a digit");
+        do {
+            builder.append((char) peek());
+            position++;
+        } while (isDigit(peek()));
+    }
+
+    private static Object parseInteger(String number) {
+        final int digits = (number.charAt(0) == '-') ? number.length() - 1 : number.length();
+        if (digits <= 9) return Integer.valueOf(number);
+        if (digits <= 18) return narrow(Long.parseLong(number));
+        final BigInteger value = new BigInteger(number);
+        return (value.bitLength() < 64) ? narrow(value.longValue()) : value;
+    }
+
+    private static Object narrow(long value) {
+        return (value == (int) value) ? Integer.valueOf((int) value) : Long.valueOf(value);
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (peek() != literal.charAt(i)) throw syntaxError("'" + literal + "'");
+            position++;
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return (c >= '0') && (c <= '9');
+    }
+
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            final int c = peek();
+            if (c == '\n') {
+                position++;
+                line++;
+                lineStart = consumed + position;
+            } else if ((c == ' ') || (c == '\t') || (c == '\r')) {
+                position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if ((position == limit) && !fill()) return EOF;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        final int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) return false;
+        limit = read;
+        return true;
+    }
+
+    private ConfigurationException syntaxError(String expected) throws IOException {
+        final int c = peek();
+        final String found = (c == EOF) ? "end of input" : "'" + (char) c + "'";
+        final long column = consumed + position - lineStart + 1;
+        String msg = "Invalid JSON at line " + line + ", column " + column + ": Expected " +
+                     expected + " but found " + found + ".";
+        return new ConfigurationException(msg);
+    }
+}
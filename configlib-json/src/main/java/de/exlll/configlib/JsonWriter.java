@@ -0,0 +1,180 @@
+package de.exlll.configlib;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A streaming writer that writes maps, lists, and scalars as JSON.
+ * <p>
+ * Maps are written as objects whose keys are the string representations of the map keys.
+ * Collections are written as arrays and byte arrays are written as Base64 encoded strings.
+ * Non-finite floating point numbers are written as the tokens {@code NaN},
+ * {@code Infinity}, and {@code -Infinity}, which are accepted by {@link JsonReader}.
+ */
+final class JsonWriter {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private final Appendable out;
+    private final boolean prettyPrinting;
+    private int indentLevel = 0;
+
+    JsonWriter(Appendable out, boolean prettyPrinting) {
+        this.out = out;
+        this.prettyPrinting = prettyPrinting;
+    }
+
+    /**
+     * Writes the given value as a JSON document.
+     *
+     * @param value the value
+     * @throws ConfigurationException if the value contains values that cannot be
+     *                                represented as JSON
+     * @throws IOException            if writing throws an exception
+     */
+    void writeDocument(Object value) throws IOException {
+        writeValue(value);
+        if (prettyPrinting) out.append('\n');
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if ((value instanceof Integer) || (value instanceof Long) ||
+                   (value instanceof Short) || (value instanceof Byte) ||
+                   (value instanceof BigInteger)) {
+            out.append(value.toString());
+        } else if ((value instanceof Double) || (value instanceof Float)) {
+            writeFloatingPointNumber(((Number) value).doubleValue());
+        } else if (value instanceof Map<?, ?>) {
+            writeObject((Map<?, ?>) value);
+        } else if (value instanceof Collection<?>) {
+            writeArray((Collection<?>) value);
+        } else if (value instanceof byte[]) {
+            writeString(Base64.getEncoder().encodeToString((byte[]) value));
+        } else {
+            String msg = "The given configuration could not be converted into JSON because " +
+                         "it contains a value of type " + value.getClass().getName() + ". \n" +
+                         "Do all custom serializers produce valid target types?";
+            throw new ConfigurationException(msg);
+        }
+    }
+
+    private void writeFloatingPointNumber(double value) throws IOException {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append((value > 0) ? "Infinity" : "-Infinity");
+        } else {
+            out.append(Double.toString(value));
+        }
+    }
+
+    private void writeObject(Map<?, ?> map) throws IOException {
+        if (map.isEmpty()) {
+            out.append("{}");
+            return;
+        }
+        out.append('{');
+        indentLevel++;
+        final Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<?, ?> entry = iterator.next();
+            if (entry.getKey() == null) {
+                String msg = "The given configuration could not be converted into JSON " +
+                             "because it contains a map with a null key.";
+                throw new ConfigurationException(msg);
+            }
+            writeNewLine();
+            writeString(entry.getKey().toString());
+            out.append(prettyPrinting ? ": " : ":");
+            writeValue(entry.getValue());
+            if (iterator.hasNext()) out.append(',');
+        }
+        indentLevel--;
+        writeNewLine();
+        out.append('}');
+    }
+
+    private void writeArray(Collection<?> collection) throws IOException {
+        if (collection.isEmpty()) {
+            out.append("[]");
+            return;
+        }
+        out.append('[');
+        indentLevel++;
+        final Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            writeNewLine();
+            writeValue(iterator.next());
+            if (iterator.hasNext()) out.append(',');
+        }
+        indentLevel--;
+        writeNewLine();
+        out.append(']');
+    }
+
+    private void writeNewLine() throws IOException {
+        if (!prettyPrinting) return;
+        out.append('\n');
+        for (int i = 0; i < indentLevel; i++) {
+            out.append("  ");
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        out.append('"');
+        int start = 0;
+        final int length = string.length();
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            final String escaped = escape(c);
+            if (escaped == null) continue;
+            // write runs of characters that don't need to be escaped at once
+            out.append(string, start, i);
+            if (escaped.isEmpty()) {
+                out.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            } else {
+                out.append(escaped);
+            }
+            start = i + 1;
+        }
+        out.append(string, start, length);
+        out.append('"');
+    }
+
+    /**
+     * Returns the escape sequence of the given character, an empty string if the character
+     * has to be escaped as a unicode escape sequence, or null if it doesn't need escaping.
+     */
+    private static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            case '\u2028':
+                return "\\u2028";
+            case '\u2029':
+                return "\\u2029";
+            default:
+                return (c < 0x20) ? "" : null;
+        }
+    }
+}
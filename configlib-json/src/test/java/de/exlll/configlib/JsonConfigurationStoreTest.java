@@ -0,0 +1,105 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonConfigurationStoreTest {
+    @Configuration
+    static final class Maps {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<Integer, String> ints = new LinkedHashMap<>();
+        Map<Long, String> longs = new LinkedHashMap<>();
+        Map<Float, String> floats = new LinkedHashMap<>();
+        Map<Double, String> doubles = new LinkedHashMap<>();
+        Map<Boolean, String> booleans = new LinkedHashMap<>();
+    }
+
+    private static final JsonConfigurationStore<Maps> STORE = new JsonConfigurationStore<>(
+            Maps.class,
+            JsonConfigurationProperties.newBuilder().build()
+    );
+
+    @Test
+    void mapKeysAreConvertedBackToTheirDeclaredType() {
+        final Maps maps = new Maps();
+        maps.strings.put("1", 1);
+        maps.strings.put("true", 2);
+        maps.strings.put("1.5", 3);
+        maps.ints.put(-7, "a");
+        maps.longs.put(Long.MAX_VALUE, "b");
+        maps.floats.put(0.1f, "c");
+        maps.doubles.put(1.5, "d");
+        maps.doubles.put(2.0, "e");
+        maps.booleans.put(true, "f");
+        maps.booleans.put(false, "g");
+
+        final StringBuilder json = new StringBuilder();
+        STORE.writeTo(maps, json);
+        final Maps read = STORE.read(json);
+
+        assertEquals(maps.strings, read.strings);
+        assertEquals(maps.ints, read.ints);
+        assertEquals(maps.longs, read.longs);
+        assertEquals(maps.floats, read.floats);
+        assertEquals(maps.doubles, read.doubles);
+        assertEquals(maps.booleans, read.booleans);
+    }
+
+    @Test
+    void textAndBytesContainTheSameJson() {
+        final Maps maps = new Maps();
+        maps.strings.put("gr\u00fc\u00dfe", 1);
+        maps.ints.put(2, "zwei");
+
+        final StringBuilder json = new StringBuilder();
+        STORE.writeTo(maps, json);
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        STORE.writeTo(maps, buffer);
+        buffer.flip();
+
+        assertEquals(ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8)), buffer);
+        final Maps read = STORE.read(buffer);
+        assertEquals(maps.strings, read.strings);
+        assertEquals(maps.ints, read.ints);
+    }
+
+    @Test
+    void mapKeysThatCannotBeConvertedAreRejected() {
+        final ConfigurationException exception = assertThrows(
+                ConfigurationException.class,
+                () -> STORE.read("{\"ints\": {\"one\": \"a\"}}")
+        );
+        assertEquals(
+                "Map key 'one' cannot be converted to type Integer.",
+                exception.getCause().getMessage()
+        );
+    }
+
+    @Test
+    void saveLeavesTheFileUnchangedIfTheConfigurationCannotBeWritten(@TempDir Path tempDir)
+            throws IOException {
+        final JsonConfigurationStore<Maps> store = new JsonConfigurationStore<>(
+                Maps.class,
+                JsonConfigurationProperties.newBuilder().outputNulls(true).build()
+        );
+        final Path file = tempDir.resolve("maps.json");
+        Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+
+        final Maps maps = new Maps();
+        maps.strings.put(null, 1);
+
+        assertThrows(ConfigurationException.class, () -> store.save(maps, file));
+        assertEquals("{}", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}
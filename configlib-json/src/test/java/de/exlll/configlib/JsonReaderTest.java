@@ -0,0 +1,75 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonReaderTest {
+    private static Object read(String json) throws IOException {
+        return new JsonReader(new StringReader(json)).readDocument();
+    }
+
+    private static String nestedArrays(int depth) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) builder.append('[');
+        for (int i = 0; i < depth; i++) builder.append(']');
+        return builder.toString();
+    }
+
+    private static String nestedObjects(int depth) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) builder.append("{\"a\":");
+        builder.append("null");
+        for (int i = 0; i < depth; i++) builder.append('}');
+        return builder.toString();
+    }
+
+    @Test
+    void valuesNestedAtMostMaxDepthLevelsDeepAreRead() throws IOException {
+        Object value = read(nestedArrays(JsonReader.MAX_DEPTH));
+        for (int i = 1; i < JsonReader.MAX_DEPTH; i++)
+            value = ((List<?>) value).get(0);
+        assertTrue(((List<?>) value).isEmpty());
+
+        value = read(nestedObjects(JsonReader.MAX_DEPTH));
+        for (int i = 1; i < JsonReader.MAX_DEPTH; i++)
+            value = ((Map<?, ?>) value).get("a");
+        assertTrue(((Map<?, ?>) value).containsKey("a"));
+    }
+
+    @Test
+    void siblingsDoNotCountTowardsTheDepth() throws IOException {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 2 * JsonReader.MAX_DEPTH; i++)
+            json.append(i == 0 ? "" : ",").append("[{}]");
+        json.append(']');
+        assertEquals(2 * JsonReader.MAX_DEPTH, ((List<?>) read(json.toString())).size());
+    }
+
+    @Test
+    void valuesNestedDeeperThanMaxDepthAreRejected() {
+        final String msg = "Invalid JSON at line 1, column " + (JsonReader.MAX_DEPTH + 1) +
+                           ": Objects and arrays must not be nested more than " +
+                           JsonReader.MAX_DEPTH + " levels deep.";
+        final ConfigurationException arrays = assertThrows(
+                ConfigurationException.class,
+                () -> read(nestedArrays(JsonReader.MAX_DEPTH + 1))
+        );
+        assertEquals(msg, arrays.getMessage());
+        assertThrows(
+                ConfigurationException.class,
+                () -> read(nestedObjects(JsonReader.MAX_DEPTH + 1))
+        );
+    }
+
+    @Test
+    void deeplyNestedDocumentsDoNotOverflowTheStack() {
+        assertThrows(ConfigurationException.class, () -> read(nestedArrays(1_000_000)));
+        assertThrows(ConfigurationException.class, () -> read(nestedObjects(1_000_000)));
+    }
+}
@@ -0,0 +1,263 @@
+package de.exlll.configlib;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static de.exlll.configlib.Validator.requireNonNull;
+
+/**
+ * A service that loads and saves configurations on Bukkit's asynchronous scheduler and
+ * publishes the results on the main server thread.
+ * <p>
+ * The futures returned by this service are completed on the main thread, so that actions
+ * that are chained to them via non-async methods like {@code thenAccept} can safely use the
+ * Bukkit API. The service can be obtained from the {@code ConfigLib} plugin:
+ *
+ * <pre>
+ * {@code
+ * AsyncConfigurationService service = JavaPlugin.getPlugin(ConfigLib.class)
+ *         .getConfigurationService();
+ * service.update(store, configurationFile).thenAccept(config -> this.config = config);
+ * }
+ * </pre>
+ * Saves of the same file are coalesced: If a configuration is saved to a file for which
+ * another save is still pending, only the most recently given configuration is written,
+ * and both calls return the same future. Loads, updates, and saves of the same file are
+ * never executed concurrently. Configurations are serialized into maps, lists, and simple
+ * values on the thread that calls {@link #save(YamlConfigurationStore, Object, Path)}, so a
+ * configuration can be modified as soon as that method returns. Converting the serialized
+ * configuration into YAML and writing the file is done asynchronously.
+ * <p>
+ * <b>Never block the main thread on a future returned by this service</b>, for example by
+ * calling {@code join()} or {@code get()} on it. Because the future is completed by a task
+ * that runs on the main thread, the main thread would wait for itself and the server would
+ * hang. Chain actions to the future instead, or call the methods of
+ * {@link YamlConfigurationStore} directly if the result is needed immediately.
+ * <p>
+ * When the {@code ConfigLib} plugin is disabled, all pending saves are executed before the
+ * plugin is disabled. After that, this service executes all operations on the calling
+ * thread. Plugins that save configurations in their own {@code onDisable} method should
+ * call {@link #flush()} to write pending saves immediately.
+ */
+public final class AsyncConfigurationService {
+    private final Plugin plugin;
+    private final Map<Path, PendingSave> pendingSaves = new HashMap<>();
+    private final Map<Path, FileLock> fileLocks = new ConcurrentHashMap<>();
+    private volatile boolean shutdown = false;
+
+    AsyncConfigurationService(Plugin plugin) {
+        this.plugin = requireNonNull(plugin, "plugin");
+    }
+
+    /**
+     * Asynchronously loads a configuration from the given file using the given store.
+     *
+     * @param store             the store used to load the configuration
+     * @param configurationFile the file the configuration is loaded from
+     * @param <T>               the configuration type
+     * @return a future that is completed on the main thread with the loaded configuration
+     * @throws NullPointerException if any argument is null
+     * @see YamlConfigurationStore#load(Path)
+     */
+    public <T> CompletableFuture<T> load(YamlConfigurationStore<T> store, Path configurationFile) {
+        requireNonNull(store, "store");
+        requireNonNull(configurationFile, "configuration file");
+        final Path key = keyOf(configurationFile);
+        return supplyAsync(() -> withFileLock(key, () -> store.load(configurationFile)));
+    }
+
+    /**
+     * Asynchronously updates the given configuration file using the given store.
+     *
+     * @param store             the store used to update the configuration
+     * @param configurationFile the file that is updated
+     * @param <T>               the configuration type
+     * @return a future that is completed on the main thread with the updated configuration
+     * @throws NullPointerException if any argument is null
+     * @see YamlConfigurationStore#update(Path)
+     */
+    public <T> CompletableFuture<T> update(YamlConfigurationStore<T> store, Path configurationFile) {
+        requireNonNull(store, "store");
+        requireNonNull(configurationFile, "configuration file");
+        final Path key = keyOf(configurationFile);
+        return supplyAsync(() -> withFileLock(key, () -> store.update(configurationFile)));
+    }
+
+    /**
+     * Serializes the given configuration on the calling thread and asynchronously converts
+     * it into YAML and saves it to the given file using the given store. If a save of the same file is still pending,
+     * that save is replaced by this one and its future is returned.
+     * <p>
+     * If the configuration cannot be serialized, the returned future is completed
+     * exceptionally and no pending save is replaced.
+     *
+     * @param store             the store used to save the configuration
+     * @param configuration     the configuration that is saved
+     * @param configurationFile the file the configuration is saved to
+     * @param <T>               the configuration type
+     * @return a future that is completed on the main thread once the file has been written
+     * @throws NullPointerException if any argument is null
+     * @see YamlConfigurationStore#save(Object, Path)
+     */
+    public <T> CompletableFuture<Void> save(
+            YamlConfigurationStore<T> store,
+            T configuration,
+            Path configurationFile
+    ) {
+        requireNonNull(store, "store");
+        requireNonNull(configuration, "configuration");
+        requireNonNull(configurationFile, "configuration file");
+        final Path key = keyOf(configurationFile);
+        final Map<?, ?> serializedConfiguration;
+        try {
+            serializedConfiguration = store.serializeForSave(configuration);
+        } catch (RuntimeException e) {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            publish(result, null, e);
+            return result;
+        }
+        final PendingSave save = new PendingSave(store, serializedConfiguration, configurationFile);
+        synchronized (pendingSaves) {
+            final PendingSave pending = pendingSaves.get(key);
+            if (pending != null) {
+                save.result = pending.result;
+                pendingSaves.put(key, save);
+                return save.result;
+            }
+            save.result = new CompletableFuture<>();
+            pendingSaves.put(key, save);
+        }
+        if (shutdown) {
+            executePendingSave(key);
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> executePendingSave(key));
+        }
+        return save.result;
+    }
+
+    /**
+     * Executes all pending saves on the calling thread and returns once they have been
+     * executed. The futures of these saves are completed before this method returns if it
+     * is called from the main thread.
+     */
+    public void flush() {
+        final List<Path> keys;
+        synchronized (pendingSaves) {
+            keys = new ArrayList<>(pendingSaves.keySet());
+        }
+        for (final Path key : keys) {
+            executePendingSave(key);
+        }
+    }
+
+    void shutdown() {
+        shutdown = true;
+        flush();
+    }
+
+    private void executePendingSave(Path key) {
+        withFileLock(key, () -> {
+            final PendingSave save;
+            synchronized (pendingSaves) {
+                save = pendingSaves.remove(key);
+            }
+            // the save has already been executed by flush
+            if (save == null) return null;
+            try {
+                save.execute();
+                publish(save.result, null, null);
+            } catch (RuntimeException e) {
+                publish(save.result, null, e);
+            }
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final Runnable task = () -> {
+            try {
+                publish(result, supplier.get(), null);
+            } catch (RuntimeException e) {
+                publish(result, null, e);
+            }
+        };
+        if (shutdown) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        }
+        return result;
+    }
+
+    private <T> void publish(CompletableFuture<T> future, T value, Throwable exception) {
+        final Runnable completion = () -> {
+            if (exception == null) future.complete(value);
+            else future.completeExceptionally(exception);
+        };
+        if (shutdown || Bukkit.isPrimaryThread()) {
+            completion.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, completion);
+        }
+    }
+
+    /**
+     * Executes the action while holding the lock of the given file. Locks are counted and
+     * removed once no thread holds or waits for them, so that locks of files that are no
+     * longer used don't accumulate.
+     */
+    private <R> R withFileLock(Path key, Supplier<R> action) {
+        final FileLock lock = fileLocks.compute(key, (path, current) -> {
+            final FileLock result = (current != null) ? current : new FileLock();
+            result.users++;
+            return result;
+        });
+        try {
+            synchronized (lock) {
+                return action.get();
+            }
+        } finally {
+            fileLocks.computeIfPresent(key, (path, current) -> (--current.users == 0) ? null : current);
+        }
+    }
+
+    private static Path keyOf(Path configurationFile) {
+        return configurationFile.toAbsolutePath().normalize();
+    }
+
+    private static final class FileLock {
+        // only accessed by the remapping functions of fileLocks, which are atomic per key
+        private int users = 0;
+    }
+
+    private static final class PendingSave {
+        private final YamlConfigurationStore<?> store;
+        private final Map<?, ?> serializedConfiguration;
+        private final Path configurationFile;
+        private CompletableFuture<Void> result;
+
+        private PendingSave(
+                YamlConfigurationStore<?> store,
+                Map<?, ?> serializedConfiguration,
+                Path configurationFile
+        ) {
+            this.store = store;
+            this.serializedConfiguration = serializedConfiguration;
+            this.configurationFile = configurationFile;
+        }
+
+        private void execute() {
+            store.saveSerialized(serializedConfiguration, configurationFile);
+        }
+    }
+}
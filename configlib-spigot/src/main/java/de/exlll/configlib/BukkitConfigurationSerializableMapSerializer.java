@@ -0,0 +1,101 @@
+package de.exlll.configlib;
+
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A serializer that converts {@code ConfigurationSerializable} objects into maps, the same
+ * way Bukkit's own {@code YamlConfiguration} does. The map of an object contains the values
+ * returned by its {@link ConfigurationSerializable#serialize() serialize} method, as well as
+ * its alias under the {@value ConfigurationSerialization#SERIALIZED_TYPE_KEY} key. Nested
+ * {@code ConfigurationSerializable} values are converted into nested maps.
+ * <p>
+ * For compatibility with configurations written by earlier versions of this library, this
+ * serializer also deserializes objects that are stored as YAML strings. These objects are
+ * converted into maps the next time the configuration is saved.
+ */
+final class BukkitConfigurationSerializableMapSerializer
+        implements Serializer<ConfigurationSerializable, Object> {
+    static final BukkitConfigurationSerializableMapSerializer DEFAULT =
+            new BukkitConfigurationSerializableMapSerializer();
+
+    @Override
+    public Map<String, Object> serialize(ConfigurationSerializable element) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put(
+                ConfigurationSerialization.SERIALIZED_TYPE_KEY,
+                ConfigurationSerialization.getAlias(element.getClass())
+        );
+        for (final Map.Entry<String, Object> entry : element.serialize().entrySet()) {
+            result.put(entry.getKey(), serializeValue(entry.getValue()));
+        }
+        return result;
+    }
+
+    private static Object serializeValue(Object value) {
+        if (value instanceof ConfigurationSerializable) {
+            return DEFAULT.serialize((ConfigurationSerializable) value);
+        } else if (value instanceof Map<?, ?>) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            final Map<Object, Object> result = new LinkedHashMap<>(map.size() * 2);
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                result.put(entry.getKey(), serializeValue(entry.getValue()));
+            }
+            return result;
+        } else if (value instanceof Iterable<?>) {
+            final List<Object> result = new ArrayList<>();
+            for (final Object element : (Iterable<?>) value) {
+                result.add(serializeValue(element));
+            }
+            return result;
+        }
+        return value;
+    }
+
+    @Override
+    public ConfigurationSerializable deserialize(Object element) {
+        if (element instanceof String) {
+            return BukkitConfigurationSerializableSerializer.DEFAULT.deserialize((String) element);
+        }
+        if (!(element instanceof Map<?, ?>)) {
+            String msg = "Value '" + element + "' cannot be deserialized into a " +
+                         "ConfigurationSerializable object. Only maps and strings are supported.";
+            throw new ConfigurationException(msg);
+        }
+        final Object result = deserializeValue(element);
+        if (!(result instanceof ConfigurationSerializable)) {
+            String msg = "Map '" + element + "' does not represent a ConfigurationSerializable " +
+                         "object. Is its '" + ConfigurationSerialization.SERIALIZED_TYPE_KEY +
+                         "' key missing or is its type not registered?";
+            throw new ConfigurationException(msg);
+        }
+        return (ConfigurationSerializable) result;
+    }
+
+    private static Object deserializeValue(Object value) {
+        if (value instanceof Map<?, ?>) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            final Map<String, Object> result = new LinkedHashMap<>(map.size() * 2);
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                result.put(String.valueOf(entry.getKey()), deserializeValue(entry.getValue()));
+            }
+            // like Bukkit, nested objects are deserialized before the objects containing them
+            return result.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY)
+                    ? ConfigurationSerialization.deserializeObject(result)
+                    : result;
+        } else if (value instanceof List<?>) {
+            final List<?> list = (List<?>) value;
+            final List<Object> result = new ArrayList<>(list.size());
+            for (final Object element : list) {
+                result.add(deserializeValue(element));
+            }
+            return result;
+        }
+        return value;
+    }
+}
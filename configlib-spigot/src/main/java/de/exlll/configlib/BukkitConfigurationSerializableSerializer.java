@@ -6,26 +6,60 @@ import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A serializer that converts {@code ConfigurationSerializable} objects into YAML strings.
+ * <p>
+ * Instances of this class can be used by multiple threads at once. Because SnakeYAML's
+ * {@code Yaml} objects are not thread-safe, each call borrows a {@code Yaml} object from a
+ * small pool and returns it afterwards. Unlike thread-local objects, pooled objects are
+ * not attached to (possibly long-lived) server threads, so they don't keep this class
+ * loaded after the plugin has been disabled.
+ */
 final class BukkitConfigurationSerializableSerializer
         implements Serializer<ConfigurationSerializable, String> {
-    static BukkitConfigurationSerializableSerializer DEFAULT =
+    static final BukkitConfigurationSerializableSerializer DEFAULT =
             new BukkitConfigurationSerializableSerializer();
-    private final Yaml yaml;
+    private final BlockingQueue<Yaml> pool =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    BukkitConfigurationSerializableSerializer() {}
 
-    BukkitConfigurationSerializableSerializer() {
+    private static Yaml newYaml() {
         DumperOptions options = new DumperOptions();
         options.setIndent(2);
         options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-        this.yaml = new Yaml(new YamlConstructor(), new YamlRepresenter(), options);
+        return new Yaml(new YamlConstructor(), new YamlRepresenter(), options);
+    }
+
+    private Yaml borrowYaml() {
+        final Yaml yaml = pool.poll();
+        return (yaml != null) ? yaml : newYaml();
     }
 
+    private void returnYaml(Yaml yaml) {
+        // if the pool is full, the object is simply dropped
+        pool.offer(yaml);
+    }
+
+    // Objects are only returned to the pool after successful calls because a failed call
+    // can leave state behind in the representer or constructor of a Yaml object.
+
     @Override
     public String serialize(ConfigurationSerializable element) {
-        return yaml.dump(element);
+        final Yaml yaml = borrowYaml();
+        final String result = yaml.dump(element);
+        returnYaml(yaml);
+        return result;
     }
 
     @Override
     public ConfigurationSerializable deserialize(String element) {
-        return (ConfigurationSerializable) yaml.load(element);
+        final Yaml yaml = borrowYaml();
+        final ConfigurationSerializable result = (ConfigurationSerializable) yaml.load(element);
+        returnYaml(yaml);
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -12,11 +12,17 @@ public final class ConfigLib extends JavaPlugin {
      * A {@code YamlConfigurationProperties} object that provides serializers for several Bukkit
      * classes like {@link ItemStack} and other {@link ConfigurationSerializable} types.
      * <p>
+     * {@code ConfigurationSerializable} objects are stored as nested maps, the same way
+     * Bukkit stores them. Objects that earlier versions of this library stored as YAML
+     * strings can still be read and are stored as maps the next time they are saved.
+     * <p>
      * You can configure these properties further by creating a new builder using the
      * {@code toBuilder()} method of this object.
      */
     public static final YamlConfigurationProperties BUKKIT_DEFAULT_PROPERTIES =
             initializeBukkitDefaultProperties();
+    private final AsyncConfigurationService configurationService =
+            new AsyncConfigurationService(this);
 
     private static YamlConfigurationProperties initializeBukkitDefaultProperties() {
         return YamlConfigurationProperties
@@ -24,8 +30,22 @@ public final class ConfigLib extends JavaPlugin {
                 .addSerializerByCondition(
                         type -> type instanceof Class<?> &&
                                 ConfigurationSerializable.class.isAssignableFrom((Class<?>) type),
-                        BukkitConfigurationSerializableSerializer.DEFAULT
+                        BukkitConfigurationSerializableMapSerializer.DEFAULT
                 )
                 .build();
     }
+
+    @Override
+    public void onDisable() {
+        configurationService.shutdown();
+    }
+
+    /**
+     * Returns the service that loads and saves configurations asynchronously.
+     *
+     * @return the configuration service
+     */
+    public AsyncConfigurationService getConfigurationService() {
+        return configurationService;
+    }
 }
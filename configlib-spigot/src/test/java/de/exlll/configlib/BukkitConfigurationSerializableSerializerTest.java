@@ -0,0 +1,178 @@
+package de.exlll.configlib;
+
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests that use a single serializer from many threads at once, so that the
+ * {@code Yaml} objects of its pool are borrowed and returned concurrently.
+ */
+class BukkitConfigurationSerializableSerializerTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 300;
+    private static final int ITEMS = 10;
+
+    public static final class TestItem implements ConfigurationSerializable {
+        private final String type;
+        private final int amount;
+        private final List<String> lore;
+        private final Map<String, Object> enchantments;
+
+        TestItem(String type, int amount, List<String> lore, Map<String, Object> enchantments) {
+            this.type = type;
+            this.amount = amount;
+            this.lore = lore;
+            this.enchantments = enchantments;
+        }
+
+        @Override
+        public Map<String, Object> serialize() {
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("type", type);
+            result.put("amount", amount);
+            result.put("lore", lore);
+            result.put("enchantments", enchantments);
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static TestItem deserialize(Map<String, Object> map) {
+            return new TestItem(
+                    (String) map.get("type"),
+                    (Integer) map.get("amount"),
+                    (List<String>) map.get("lore"),
+                    (Map<String, Object>) map.get("enchantments")
+            );
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TestItem)) return false;
+            TestItem item = (TestItem) o;
+            return amount == item.amount &&
+                   type.equals(item.type) &&
+                   lore.equals(item.lore) &&
+                   enchantments.equals(item.enchantments);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, amount, lore, enchantments);
+        }
+    }
+
+    @Configuration
+    static final class Inventory {
+        String owner = "";
+        List<TestItem> items = new ArrayList<>();
+    }
+
+    @BeforeAll
+    static void registerTestItem() {
+        ConfigurationSerialization.registerClass(TestItem.class);
+    }
+
+    private static TestItem newItem(int thread, int iteration, int index) {
+        final Map<String, Object> enchantments = new LinkedHashMap<>();
+        enchantments.put("sharpness", iteration % 5);
+        enchantments.put("unbreaking", thread);
+        return new TestItem(
+                "ITEM_" + thread + "_" + iteration + "_" + index,
+                index + 1,
+                Arrays.asList("line " + iteration, "owner " + thread),
+                enchantments
+        );
+    }
+
+    private static void runConcurrently(ThreadAction action) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int t = thread;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int iteration = 0; iteration < ITERATIONS; iteration++)
+                        action.run(t, iteration);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentSerializationsRoundTrip() throws Exception {
+        final BukkitConfigurationSerializableSerializer serializer =
+                new BukkitConfigurationSerializableSerializer();
+        runConcurrently((thread, iteration) -> {
+            for (int i = 0; i < ITEMS; i++) {
+                final TestItem item = newItem(thread, iteration, i);
+                assertEquals(item, serializer.deserialize(serializer.serialize(item)));
+            }
+        });
+    }
+
+    @Test
+    void failedCallsDoNotAffectConcurrentCalls() throws Exception {
+        final BukkitConfigurationSerializableSerializer serializer =
+                new BukkitConfigurationSerializableSerializer();
+        runConcurrently((thread, iteration) -> {
+            if ((thread + iteration) % 3 == 0) {
+                assertThrows(
+                        RuntimeException.class,
+                        () -> serializer.deserialize("{a: [1, 2")
+                );
+            } else {
+                final TestItem item = newItem(thread, iteration, 0);
+                assertEquals(item, serializer.deserialize(serializer.serialize(item)));
+            }
+        });
+    }
+
+    @Test
+    void concurrentLoadsOfLegacyStringItems() throws Exception {
+        final YamlConfigurationStore<Inventory> store = new YamlConfigurationStore<>(
+                Inventory.class,
+                YamlConfigurationProperties.newBuilder()
+                        .addSerializerByCondition(
+                                type -> type == TestItem.class,
+                                BukkitConfigurationSerializableMapSerializer.DEFAULT
+                        )
+                        .build()
+        );
+        runConcurrently((thread, iteration) -> {
+            final List<TestItem> items = new ArrayList<>();
+            final StringBuilder yaml = new StringBuilder("owner: player-" + thread + "\nitems:\n");
+            for (int i = 0; i < ITEMS; i++) {
+                final TestItem item = newItem(thread, iteration, i);
+                final String legacy = BukkitConfigurationSerializableSerializer.DEFAULT
+                        .serialize(item);
+                items.add(item);
+                yaml.append("- |\n");
+                for (String line : legacy.split("\n"))
+                    yaml.append("  ").append(line).append('\n');
+            }
+            final Inventory inventory = store.read(yaml);
+            assertEquals("player-" + thread, inventory.owner);
+            assertEquals(items, inventory.items);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ThreadAction {
+        void run(int thread, int iteration) throws Exception;
+    }
+}
@@ -1,9 +1,26 @@
 package de.exlll.configlib;
 
+import com.google.inject.Inject;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
 import com.velocitypowered.api.plugin.Plugin;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.kyori.adventure.text.Component;
+import org.slf4j.Logger;
+
+import java.util.List;
 
 /**
- * An empty plugin class that loads this library and its dependencies.
+ * The plugin class that loads this library and its dependencies.
+ * <p>
+ * This plugin provides a {@link ConfigurationRegistry} that loads configurations on the
+ * scheduler of the proxy, so that the configurations of all plugins are loaded in parallel.
+ * Configurations that are registered before the proxy has been initialized are loaded once
+ * it is, and plugins can wait for that with {@link ConfigurationRegistry#initialLoad()}.
+ * All registered configurations can be reloaded with the {@code /configlib reload}
+ * command, which requires the {@code configlib.reload} permission.
  */
 @Plugin(
         id = "configlib",
@@ -13,4 +30,83 @@ import com.velocitypowered.api.plugin.Plugin;
         description = "A library for working with YAML configurations.",
         authors = {"Exlll"}
 )
-public final class ConfigLib {}
+public final class ConfigLib {
+    private static final String RELOAD_PERMISSION = "configlib.reload";
+    private final ProxyServer server;
+    private final Logger logger;
+    private final ConfigurationRegistry configurationRegistry;
+
+    /**
+     * Constructs a new instance of this plugin. This constructor is called by Velocity.
+     *
+     * @param server the proxy server
+     * @param logger the logger of this plugin
+     */
+    @Inject
+    public ConfigLib(ProxyServer server, Logger logger) {
+        this.server = server;
+        this.logger = logger;
+        this.configurationRegistry = new ConfigurationRegistry(
+                command -> server.getScheduler().buildTask(this, command).schedule()
+        );
+    }
+
+    /**
+     * Registers the commands of this plugin and loads all registered configurations.
+     *
+     * @param event the initialization event
+     */
+    @Subscribe
+    public void onProxyInitialization(ProxyInitializeEvent event) {
+        server.getCommandManager().register(
+                server.getCommandManager().metaBuilder("configlib").build(),
+                new ConfigLibCommand()
+        );
+        configurationRegistry.loadAll().thenAccept(this::logFailures);
+    }
+
+    private void logFailures(List<ConfigurationRegistry.ReloadResult> results) {
+        for (final ConfigurationRegistry.ReloadResult result : results) {
+            if (!result.succeeded() || !result.listenerExceptions().isEmpty())
+                logger.warn(result.toString());
+        }
+    }
+
+    /**
+     * Returns the registry that loads configurations on the scheduler of the proxy.
+     *
+     * @return the configuration registry
+     */
+    public ConfigurationRegistry getConfigurationRegistry() {
+        return configurationRegistry;
+    }
+
+    private final class ConfigLibCommand implements SimpleCommand {
+        @Override
+        public void execute(Invocation invocation) {
+            final CommandSource source = invocation.source();
+            final String[] arguments = invocation.arguments();
+            if ((arguments.length != 1) || !arguments[0].equalsIgnoreCase("reload")) {
+                source.sendMessage(Component.text("Usage: /configlib reload"));
+                return;
+            }
+            source.sendMessage(Component.text("Reloading all configurations..."));
+            configurationRegistry.reloadAll().thenAccept(results -> report(source, results));
+        }
+
+        private void report(
+                CommandSource source,
+                List<ConfigurationRegistry.ReloadResult> results
+        ) {
+            for (final ConfigurationRegistry.ReloadResult result : results) {
+                source.sendMessage(Component.text(result.toString()));
+            }
+            source.sendMessage(Component.text("Reloaded " + results.size() + " configurations."));
+        }
+
+        @Override
+        public boolean hasPermission(Invocation invocation) {
+            return invocation.source().hasPermission(RELOAD_PERMISSION);
+        }
+    }
+}
@@ -1,8 +1,76 @@
 package de.exlll.configlib;
 
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.plugin.Command;
 import net.md_5.bungee.api.plugin.Plugin;
 
+import java.util.List;
+import java.util.logging.Level;
+
 /**
- * An empty plugin class that loads this library and its dependencies.
+ * The plugin class that loads this library and its dependencies.
+ * <p>
+ * This plugin provides a {@link ConfigurationRegistry} that loads configurations on the
+ * asynchronous scheduler of the proxy, so that the configurations of all plugins are loaded
+ * in parallel. Configurations that are registered before this plugin has been enabled are
+ * loaded once it is, and plugins can wait for that with
+ * {@link ConfigurationRegistry#initialLoad()}. All registered configurations can be reloaded with the
+ * {@code /configlib reload} command, which requires the {@code configlib.reload}
+ * permission.
  */
-public final class ConfigLib extends Plugin {}
+public final class ConfigLib extends Plugin {
+    private static final String RELOAD_PERMISSION = "configlib.reload";
+    private final ConfigurationRegistry configurationRegistry = new ConfigurationRegistry(
+            command -> getProxy().getScheduler().runAsync(this, command)
+    );
+
+    @Override
+    public void onEnable() {
+        getProxy().getPluginManager().registerCommand(this, new ConfigLibCommand());
+        configurationRegistry.loadAll().thenAccept(this::logFailures);
+    }
+
+    private void logFailures(List<ConfigurationRegistry.ReloadResult> results) {
+        for (final ConfigurationRegistry.ReloadResult result : results) {
+            if (!result.succeeded() || !result.listenerExceptions().isEmpty())
+                getLogger().log(Level.WARNING, result.toString());
+        }
+    }
+
+    /**
+     * Returns the registry that loads configurations on the asynchronous scheduler of
+     * the proxy.
+     *
+     * @return the configuration registry
+     */
+    public ConfigurationRegistry getConfigurationRegistry() {
+        return configurationRegistry;
+    }
+
+    private final class ConfigLibCommand extends Command {
+        private ConfigLibCommand() {
+            super("configlib", RELOAD_PERMISSION);
+        }
+
+        @Override
+        public void execute(CommandSender sender, String[] args) {
+            if ((args.length != 1) || !args[0].equalsIgnoreCase("reload")) {
+                sender.sendMessage(new TextComponent("Usage: /configlib reload"));
+                return;
+            }
+            sender.sendMessage(new TextComponent("Reloading all configurations..."));
+            configurationRegistry.reloadAll().thenAccept(results -> report(sender, results));
+        }
+
+        private void report(
+                CommandSender sender,
+                List<ConfigurationRegistry.ReloadResult> results
+        ) {
+            for (final ConfigurationRegistry.ReloadResult result : results) {
+                sender.sendMessage(new TextComponent(result.toString()));
+            }
+            sender.sendMessage(new TextComponent("Reloaded " + results.size() + " configurations."));
+        }
+    }
+}
@@ -5,6 +5,8 @@ package de.exlll.configlib;
  * that are more specific to YAML files.
  */
 public final class YamlConfigurationProperties extends FileConfigurationProperties {
+    private final boolean cacheSnapshots;
+
     /**
      * Constructs a new instance of this class with values taken from the given builder.
      *
@@ -13,6 +15,7 @@ public final class YamlConfigurationProperties extends FileConfigurationProperti
      */
     public YamlConfigurationProperties(Builder<?> builder) {
         super(builder);
+        this.cacheSnapshots = builder.cacheSnapshots;
     }
 
     /**
@@ -47,6 +50,7 @@ public final class YamlConfigurationProperties extends FileConfigurationProperti
      */
     public static abstract class Builder<B extends Builder<B>>
             extends FileConfigurationProperties.Builder<B> {
+        private boolean cacheSnapshots = false;
 
         /**
          * The default constructor.
@@ -61,6 +65,28 @@ public final class YamlConfigurationProperties extends FileConfigurationProperti
          */
         protected Builder(YamlConfigurationProperties properties) {
             super(properties);
+            this.cacheSnapshots = properties.cacheSnapshots;
+        }
+
+        /**
+         * Sets whether parsed configuration files should be cached in binary snapshot files.
+         * <p>
+         * If this option is enabled, loading a configuration file writes a snapshot of the
+         * parsed file to a hidden file next to it. The next time the file is loaded, the
+         * snapshot is used instead of parsing the file again if the size, the modification
+         * time, and the contents of the file have not changed since the snapshot was written.
+         * Additionally, saving a configuration doesn't rewrite its file if the contents of
+         * the file would not change, so that updating an unchanged file keeps its snapshot
+         * valid.
+         * <p>
+         * The default value is {@code false}.
+         *
+         * @param cacheSnapshots whether to cache parsed configuration files
+         * @return this builder
+         */
+        public final B cacheSnapshots(boolean cacheSnapshots) {
+            this.cacheSnapshots = cacheSnapshots;
+            return getThis();
         }
 
         /**
@@ -77,4 +103,26 @@ public final class YamlConfigurationProperties extends FileConfigurationProperti
          */
         protected abstract B getThis();
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns whether parsed configuration files are cached in binary snapshot files.
+     *
+     * @return whether to cache parsed configuration files
+     */
+    public boolean cacheSnapshots() {
+        return cacheSnapshots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!super.equals(o)) return false;
+        final YamlConfigurationProperties other = (YamlConfigurationProperties) o;
+        return cacheSnapshots == other.cacheSnapshots;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Boolean.hashCode(cacheSnapshots);
+    }
+}
@@ -11,11 +11,17 @@ import org.snakeyaml.engine.v2.nodes.Tag;
 import org.snakeyaml.engine.v2.representer.StandardRepresenter;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Queue;
 
@@ -25,15 +31,30 @@ import static de.exlll.configlib.Validator.requireNonNull;
  * A configuration store for YAML configurations. This class provides two pairs of methods:
  * One pair for loading configurations from and saving them as YAML text files, and a second pair
  * for reading configurations from input streams and writing them to output streams.
+ * <p>
+ * Configurations can also be read from and written to byte arrays, byte buffers, character
+ * sequences, and appendables, which is useful for configurations that are stored in
+ * databases or sent as messages. Writing to an appendable or a byte buffer doesn't go
+ * through an output stream, so that no intermediate copies of the YAML are created.
+ * <p>
+ * Instances of this class are thread-safe if the custom serializers and post-processors
+ * of their properties are. However, concurrently saving to and loading from the same file
+ * has to be synchronized by the caller.
  *
  * @param <T> the configuration type
  */
 public final class YamlConfigurationStore<T> implements
         FileConfigurationStore<T>,
-        IOStreamConfigurationStore<T> {
+        TextConfigurationStore<T> {
 
-    private static final Dump YAML_DUMPER = newYamlDumper();
-    private static final Load YAML_LOADER = newYamlLoader();
+    // Settings are immutable and can be shared. The Load and Dump engines created from them
+    // keep state while loading or dumping, so every operation needs its own engine.
+    private static final DumpSettings DUMP_SETTINGS = DumpSettings.builder()
+            .setDefaultFlowStyle(FlowStyle.BLOCK)
+            .setIndent(2)
+            .build();
+    private static final LoadSettings LOAD_SETTINGS = LoadSettings.builder().build();
+    private final Class<T> configurationType;
     private final YamlConfigurationProperties properties;
     private final TypeSerializer<T, ?> serializer;
     private final CommentNodeExtractor extractor;
@@ -46,7 +67,7 @@ public final class YamlConfigurationStore<T> implements
      * @throws NullPointerException if any argument is null
      */
     public YamlConfigurationStore(Class<T> configurationType, YamlConfigurationProperties properties) {
-        requireNonNull(configurationType, "configuration type");
+        this.configurationType = requireNonNull(configurationType, "configuration type");
         this.properties = requireNonNull(properties, "properties");
         this.serializer = TypeSerializer.newSerializerFor(configurationType, properties);
         this.extractor = new CommentNodeExtractor(properties);
@@ -63,14 +84,98 @@ public final class YamlConfigurationStore<T> implements
         yamlFileWriter.writeYaml(dumpedYaml, extractedCommentNodes);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The YAML is encoded with the charset of the properties of this store.
+     *
+     * @param configuration {@inheritDoc}
+     * @param buffer        {@inheritDoc}
+     */
+    @Override
+    public void writeTo(T configuration, ByteBuffer buffer) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(buffer, "buffer");
+        StringBuilder builder = new StringBuilder();
+        writeTo(configuration, builder);
+        CharsetEncoding.encode(builder, properties.getCharset(), buffer);
+    }
+
+    @Override
+    public void writeTo(T configuration, Appendable appendable) {
+        requireNonNull(configuration, "configuration");
+        requireNonNull(appendable, "appendable");
+        Queue<CommentNode> extractedCommentNodes = extractor.extractCommentNodes(configuration);
+        String dumpedYaml = tryDump(configuration);
+        new YamlWriter(appendable, properties).writeYaml(dumpedYaml, extractedCommentNodes);
+    }
+
     @Override
     public void save(T configuration, Path configurationFile) {
         requireNonNull(configuration, "configuration");
         requireNonNull(configurationFile, "configuration file");
         tryCreateParentDirectories(configurationFile);
         Queue<CommentNode> extractedCommentNodes = extractor.extractCommentNodes(configuration);
-        YamlWriter yamlFileWriter = new YamlWriter(configurationFile, properties);
         String dumpedYaml = tryDump(configuration);
+        if (properties.cacheSnapshots()) {
+            saveIfChanged(configurationFile, dumpedYaml, extractedCommentNodes);
+            return;
+        }
+        YamlWriter yamlFileWriter = new YamlWriter(configurationFile, properties);
+        yamlFileWriter.writeYaml(dumpedYaml, extractedCommentNodes);
+    }
+
+    private void saveIfChanged(
+            Path configurationFile,
+            String dumpedYaml,
+            Queue<CommentNode> extractedCommentNodes
+    ) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new YamlWriter(outputStream, properties).writeYaml(dumpedYaml, extractedCommentNodes);
+        writeIfChanged(configurationFile, outputStream.toByteArray());
+    }
+
+    private static void writeIfChanged(Path configurationFile, byte[] contents) {
+        try {
+            // rewriting an unchanged file would invalidate its snapshot
+            if (Files.isRegularFile(configurationFile) &&
+                (Files.size(configurationFile) == contents.length) &&
+                Arrays.equals(Files.readAllBytes(configurationFile), contents))
+                return;
+            Files.write(configurationFile, contents);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Serializes the given configuration without converting it into YAML. Together with
+     * {@link #saveSerialized(Map, Path)}, this allows a configuration to be serialized on
+     * the thread that owns it and to be converted into YAML and saved on some other thread.
+     */
+    Map<?, ?> serializeForSave(T configuration) {
+        requireNonNull(configuration, "configuration");
+        return serializer.serialize(configuration);
+    }
+
+    /**
+     * Saves a configuration that has been serialized by {@link #serializeForSave(Object)}
+     * to the given configuration file, the same way {@link #save(Object, Path)} saves a
+     * configuration. Comments are extracted from the serialized configuration, so the
+     * configuration object itself is not accessed by this method.
+     */
+    void saveSerialized(Map<?, ?> serializedConfiguration, Path configurationFile) {
+        requireNonNull(serializedConfiguration, "serialized configuration");
+        requireNonNull(configurationFile, "configuration file");
+        tryCreateParentDirectories(configurationFile);
+        Queue<CommentNode> extractedCommentNodes =
+                extractor.extractCommentNodes(configurationType, serializedConfiguration);
+        String dumpedYaml = tryDump(serializedConfiguration);
+        if (properties.cacheSnapshots()) {
+            saveIfChanged(configurationFile, dumpedYaml, extractedCommentNodes);
+            return;
+        }
+        YamlWriter yamlFileWriter = new YamlWriter(configurationFile, properties);
         yamlFileWriter.writeYaml(dumpedYaml, extractedCommentNodes);
     }
 
@@ -86,9 +191,12 @@ public final class YamlConfigurationStore<T> implements
     }
 
     private String tryDump(T configuration) {
-        final Map<?, ?> serializedConfiguration = serializer.serialize(configuration);
+        return tryDump(serializer.serialize(configuration));
+    }
+
+    private static String tryDump(Map<?, ?> serializedConfiguration) {
         try {
-            return YAML_DUMPER.dumpToString(serializedConfiguration);
+            return newYamlDumper().dumpToString(serializedConfiguration);
         } catch (YamlEngineException e) {
             String msg = "The given configuration could not be converted into YAML. \n" +
                          "Do all custom serializers produce valid target types?";
@@ -100,8 +208,8 @@ public final class YamlConfigurationStore<T> implements
     public T read(InputStream inputStream) {
         requireNonNull(inputStream, "input stream");
         try {
-            Object yaml = YAML_LOADER.loadFromInputStream(inputStream);
-            Map<?, ?> conf = requireYamlMapForRead(yaml);
+            Object yaml = newYamlLoader().loadFromInputStream(inputStream);
+            Map<?, ?> conf = requireYamlMapForRead(yaml, "input stream");
             return serializer.deserialize(conf);
         } catch (YamlEngineException e) {
             String msg = "The input stream does not contain valid YAML.";
@@ -109,18 +217,31 @@ public final class YamlConfigurationStore<T> implements
         }
     }
 
-    private Map<?, ?> requireYamlMapForRead(Object yaml) {
+    @Override
+    public T read(CharSequence text) {
+        requireNonNull(text, "text");
+        try {
+            Object yaml = newYamlLoader().loadFromString(text.toString());
+            Map<?, ?> conf = requireYamlMapForRead(yaml, "given text");
+            return serializer.deserialize(conf);
+        } catch (YamlEngineException e) {
+            String msg = "The given text does not contain valid YAML.";
+            throw new ConfigurationException(msg, e);
+        }
+    }
+
+    private Map<?, ?> requireYamlMapForRead(Object yaml, String source) {
         if (yaml == null) {
-            String msg = "The input stream is empty or only contains null.";
+            String msg = "The " + source + " is empty or only contains null.";
             throw new ConfigurationException(msg);
         }
 
         if (!(yaml instanceof Map<?, ?>)) {
             String msg = String.format(
-                    "The contents of the input stream do not represent a configuration. " +
+                    "The contents of the %s do not represent a configuration. " +
                     "A valid configuration contains a YAML map but instead a " +
                     "'%s' was found.",
-                    yaml.getClass()
+                    source, yaml.getClass()
             );
             throw new ConfigurationException(msg);
         }
@@ -131,8 +252,11 @@ public final class YamlConfigurationStore<T> implements
     @Override
     public T load(Path configurationFile) {
         requireNonNull(configurationFile, "configuration file");
+        if (properties.cacheSnapshots()) {
+            return serializer.deserialize(loadUsingSnapshot(configurationFile));
+        }
         try (BufferedReader reader = Files.newBufferedReader(configurationFile, properties.getCharset())) {
-            Object yaml = YAML_LOADER.loadFromReader(reader);
+            Object yaml = newYamlLoader().loadFromReader(reader);
             Map<?, ?> conf = requireYamlMapForLoad(yaml, configurationFile);
             return serializer.deserialize(conf);
         } catch (YamlEngineException e) {
@@ -146,6 +270,42 @@ public final class YamlConfigurationStore<T> implements
         }
     }
 
+    private Map<?, ?> loadUsingSnapshot(Path configurationFile) {
+        final Charset charset = properties.getCharset();
+        try {
+            // the modification time is read first so that a concurrent modification of
+            // the file can never produce a snapshot that matches the modified file
+            long lastModified = Files.getLastModifiedTime(configurationFile).toMillis();
+            byte[] contents = Files.readAllBytes(configurationFile);
+            Object tree = YamlSnapshotCache.read(configurationFile, contents, lastModified, charset);
+            if (tree instanceof Map<?, ?>)
+                return (Map<?, ?>) tree;
+            Object yaml = newYamlLoader().loadFromString(decode(contents, charset));
+            Map<?, ?> conf = requireYamlMapForLoad(yaml, configurationFile);
+            YamlSnapshotCache.write(configurationFile, contents, lastModified, charset, conf);
+            return conf;
+        } catch (YamlEngineException | CharacterCodingException e) {
+            String msg = String.format(
+                    "The configuration file at %s does not contain valid YAML.",
+                    configurationFile
+            );
+            throw new ConfigurationException(msg, e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // like the reader used by load without snapshots, fail on malformed input
+    // instead of silently replacing it
+    private static String decode(byte[] contents, Charset charset)
+            throws CharacterCodingException {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(contents))
+                .toString();
+    }
+
     private Map<?, ?> requireYamlMapForLoad(Object yaml, Path configurationFile) {
         if (yaml == null) {
             String msg = String.format(
@@ -181,17 +341,20 @@ public final class YamlConfigurationStore<T> implements
         return defaultConfiguration;
     }
 
+    /**
+     * Returns a new engine for dumping YAML. Engines are not thread-safe and must not be
+     * shared between threads.
+     */
     static Dump newYamlDumper() {
-        DumpSettings settings = DumpSettings.builder()
-                .setDefaultFlowStyle(FlowStyle.BLOCK)
-                .setIndent(2)
-                .build();
-        return new Dump(settings, new YamlConfigurationRepresenter(settings));
+        return new Dump(DUMP_SETTINGS, new YamlConfigurationRepresenter(DUMP_SETTINGS));
     }
 
+    /**
+     * Returns a new engine for loading YAML. Engines are not thread-safe and must not be
+     * shared between threads.
+     */
     static Load newYamlLoader() {
-        LoadSettings settings = LoadSettings.builder().build();
-        return new Load(settings);
+        return new Load(LOAD_SETTINGS);
     }
 
     /**
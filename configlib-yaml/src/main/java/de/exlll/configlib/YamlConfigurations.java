@@ -3,15 +3,71 @@ package de.exlll.configlib;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
+import static de.exlll.configlib.Validator.requireNonNull;
+
 /**
  * This class contains convenience methods for reading, writing, loading, saving,
  * and updating configurations.
+ * <p>
+ * The stores used by these methods are cached by configuration type and properties, so
+ * that repeatedly calling these methods with equal properties costs the same as reusing
+ * a {@link YamlConfigurationStore}. For each configuration type, the stores of the most
+ * recently used {@value #MAX_CACHED_STORES_PER_TYPE} properties objects are kept. The
+ * cached stores do not prevent their configuration types from being unloaded.
+ * <p>
+ * The methods of this class can be called concurrently from multiple threads, even
+ * though the same cached store is used by all of them.
  */
 public final class YamlConfigurations {
+    private static final int MAX_CACHED_STORES_PER_TYPE = 8;
+    private static final YamlConfigurationProperties DEFAULT_PROPERTIES =
+            YamlConfigurationProperties.newBuilder().build();
+    // A ClassValue ties the lifetime of the cached stores to that of their configuration
+    // types, which are often loaded by some other (e.g. a plugin's) class loader.
+    private static final ClassValue<Map<YamlConfigurationProperties, YamlConfigurationStore<?>>>
+            STORES_BY_TYPE = new ClassValue<Map<YamlConfigurationProperties, YamlConfigurationStore<?>>>() {
+        @Override
+        protected Map<YamlConfigurationProperties, YamlConfigurationStore<?>> computeValue(Class<?> type) {
+            return new LinkedHashMap<YamlConfigurationProperties, YamlConfigurationStore<?>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<YamlConfigurationProperties, YamlConfigurationStore<?>> eldest
+                ) {
+                    return size() > MAX_CACHED_STORES_PER_TYPE;
+                }
+            };
+        }
+    };
+
     private YamlConfigurations() {}
 
+    /**
+     * Returns a store for the given configuration type and properties, creating a new one
+     * only if no store for that type and equal properties is cached.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> YamlConfigurationStore<T> storeFor(
+            Class<T> configurationType,
+            YamlConfigurationProperties properties
+    ) {
+        requireNonNull(configurationType, "configuration type");
+        requireNonNull(properties, "properties");
+        final Map<YamlConfigurationProperties, YamlConfigurationStore<?>> stores =
+                STORES_BY_TYPE.get(configurationType);
+        synchronized (stores) {
+            YamlConfigurationStore<?> store = stores.get(properties);
+            if (store == null) {
+                store = new YamlConfigurationStore<>(configurationType, properties);
+                stores.put(properties, store);
+            }
+            return (YamlConfigurationStore<T>) store;
+        }
+    }
+
     /**
      * Loads a configuration of the given type from the specified YAML file using a
      * {@code YamlConfigurationProperties} object with default values.
@@ -27,7 +83,7 @@ public final class YamlConfigurations {
      * @see YamlConfigurationStore#load(Path)
      */
     public static <T> T load(Path configurationFile, Class<T> configurationType) {
-        final YamlConfigurationProperties properties = YamlConfigurationProperties.newBuilder().build();
+        final YamlConfigurationProperties properties = DEFAULT_PROPERTIES;
         return load(configurationFile, configurationType, properties);
     }
 
@@ -77,7 +133,7 @@ public final class YamlConfigurations {
             Class<T> configurationType,
             YamlConfigurationProperties properties
     ) {
-        final YamlConfigurationStore<T> store = new YamlConfigurationStore<>(configurationType, properties);
+        final YamlConfigurationStore<T> store = storeFor(configurationType, properties);
         return store.load(configurationFile);
     }
 
@@ -95,7 +151,7 @@ public final class YamlConfigurations {
      * @see YamlConfigurationStore#read(InputStream)
      */
     public static <T> T read(InputStream inputStream, Class<T> configurationType) {
-        final YamlConfigurationProperties properties = YamlConfigurationProperties.newBuilder().build();
+        final YamlConfigurationProperties properties = DEFAULT_PROPERTIES;
         return read(inputStream, configurationType, properties);
     }
 
@@ -143,7 +199,7 @@ public final class YamlConfigurations {
             Class<T> configurationType,
             YamlConfigurationProperties properties
     ) {
-        final YamlConfigurationStore<T> store = new YamlConfigurationStore<>(configurationType, properties);
+        final YamlConfigurationStore<T> store = storeFor(configurationType, properties);
         return store.read(inputStream);
     }
 
@@ -163,7 +219,7 @@ public final class YamlConfigurations {
      * @see YamlConfigurationStore#update(Path)
      */
     public static <T> T update(Path configurationFile, Class<T> configurationType) {
-        final YamlConfigurationProperties properties = YamlConfigurationProperties.newBuilder().build();
+        final YamlConfigurationProperties properties = DEFAULT_PROPERTIES;
         return update(configurationFile, configurationType, properties);
     }
 
@@ -215,7 +271,7 @@ public final class YamlConfigurations {
             Class<T> configurationType,
             YamlConfigurationProperties properties
     ) {
-        final YamlConfigurationStore<T> store = new YamlConfigurationStore<>(configurationType, properties);
+        final YamlConfigurationStore<T> store = storeFor(configurationType, properties);
         return store.update(configurationFile);
     }
 
@@ -238,7 +294,7 @@ public final class YamlConfigurations {
             Class<T> configurationType,
             T configuration
     ) {
-        final YamlConfigurationProperties properties = YamlConfigurationProperties.newBuilder().build();
+        final YamlConfigurationProperties properties = DEFAULT_PROPERTIES;
         save(configurationFile, configurationType, configuration, properties);
     }
 
@@ -290,7 +346,7 @@ public final class YamlConfigurations {
             T configuration,
             YamlConfigurationProperties properties
     ) {
-        final YamlConfigurationStore<T> store = new YamlConfigurationStore<>(configurationType, properties);
+        final YamlConfigurationStore<T> store = storeFor(configurationType, properties);
         store.save(configuration, configurationFile);
     }
 
@@ -313,7 +369,7 @@ public final class YamlConfigurations {
             Class<T> configurationType,
             T configuration
     ) {
-        final YamlConfigurationProperties properties = YamlConfigurationProperties.newBuilder().build();
+        final YamlConfigurationProperties properties = DEFAULT_PROPERTIES;
         write(outputStream, configurationType, configuration, properties);
     }
 
@@ -365,7 +421,7 @@ public final class YamlConfigurations {
             T configuration,
             YamlConfigurationProperties properties
     ) {
-        final YamlConfigurationStore<T> store = new YamlConfigurationStore<>(configurationType, properties);
+        final YamlConfigurationStore<T> store = storeFor(configurationType, properties);
         store.write(configuration, outputStream);
     }
 }
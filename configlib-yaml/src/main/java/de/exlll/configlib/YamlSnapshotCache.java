@@ -0,0 +1,164 @@
+package de.exlll.configlib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes snapshots of parsed YAML files.
+ * <p>
+ * A snapshot is stored in a hidden file next to the YAML file it belongs to. It contains
+ * the size, the modification time, and the SHA-256 hash of the YAML file, the charset the
+ * file was decoded with, and the tree of maps, lists, and scalars the file was parsed into,
+ * encoded by {@link BinaryTreeCodec}. A snapshot is only used if all of these values
+ * still match the YAML file. Snapshots that don't match, or that cannot be read, are
+ * ignored and overwritten the next time the YAML file is parsed.
+ */
+final class YamlSnapshotCache {
+    private static final int MAGIC = 0x434C534E; // "CLSN"
+    private static final int VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final Map<Path, WriteLock> WRITE_LOCKS = new ConcurrentHashMap<>();
+
+    private YamlSnapshotCache() {}
+
+    static Path snapshotFileOf(Path configurationFile) {
+        return configurationFile.resolveSibling("." + configurationFile.getFileName() + ".snapshot");
+    }
+
+    static Path temporarySnapshotFileOf(Path configurationFile) {
+        return configurationFile.resolveSibling("." + configurationFile.getFileName() + ".snapshot.tmp");
+    }
+
+    /**
+     * Returns the tree stored in the snapshot of the given file, or null if there is no
+     * snapshot or if the snapshot does not match the given contents of the file.
+     */
+    static Object read(Path configurationFile, byte[] contents, long lastModified, Charset charset) {
+        final byte[] snapshot;
+        try {
+            snapshot = Files.readAllBytes(snapshotFileOf(configurationFile));
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            final ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+            if ((buffer.getInt() != MAGIC) || (buffer.get() != VERSION) ||
+                (buffer.getLong() != contents.length) || (buffer.getLong() != lastModified))
+                return null;
+            final byte[] charsetName = new byte[buffer.get() & 0xFF];
+            buffer.get(charsetName);
+            if (!charset.name().equals(new String(charsetName, StandardCharsets.US_ASCII)))
+                return null;
+            final byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            if (!Arrays.equals(hash, sha256(contents)))
+                return null;
+            return BinaryTreeCodec.decode(buffer);
+        } catch (RuntimeException e) {
+            // the snapshot is corrupt, so the file has to be parsed again
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given tree for the given file. Failures are ignored because
+     * snapshots only serve as a cache.
+     */
+    static void write(
+            Path configurationFile,
+            byte[] contents,
+            long lastModified,
+            Charset charset,
+            Object tree
+    ) {
+        final byte[] encodedTree;
+        try {
+            encodedTree = BinaryTreeCodec.encode(tree);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        final byte[] charsetName = charset.name().getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                4 + 1 + 8 + 8 + 1 + charsetName.length + HASH_LENGTH + encodedTree.length
+        );
+        buffer.putInt(MAGIC)
+                .put((byte) VERSION)
+                .putLong(contents.length)
+                .putLong(lastModified)
+                .put((byte) charsetName.length)
+                .put(charsetName)
+                .put(sha256(contents))
+                .put(encodedTree);
+
+        final Path snapshotFile = snapshotFileOf(configurationFile);
+        // write to a temporary file first so that readers never see partial snapshots;
+        // its name is fixed so that a file left behind by a crash is overwritten by the
+        // next write instead of accumulating, which requires writes of the same snapshot
+        // to be serialized
+        final Path temporaryFile = temporarySnapshotFileOf(configurationFile);
+        final Path key = snapshotFile.toAbsolutePath().normalize();
+        final WriteLock lock = WRITE_LOCKS.compute(key, (path, current) -> {
+            final WriteLock result = (current != null) ? current : new WriteLock();
+            result.users++;
+            return result;
+        });
+        try {
+            synchronized (lock) {
+                try {
+                    Files.write(temporaryFile, buffer.array(),
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE);
+                    moveReplacing(temporaryFile, snapshotFile);
+                } catch (IOException e) {
+                    deleteIfExists(temporaryFile);
+                }
+            }
+        } finally {
+            // locks are removed once no thread holds or waits for them
+            WRITE_LOCKS.computeIfPresent(key, (path, current) -> (--current.users == 0) ? null : current);
+        }
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteIfExists(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class WriteLock {
+        // only accessed by the remapping functions of WRITE_LOCKS, which are atomic per key
+        private int users = 0;
+    }
+}
@@ -13,15 +13,29 @@ import java.util.Queue;
 import static de.exlll.configlib.Validator.requireNonNull;
 
 /**
- * A writer that writes YAML to a file.
+ * A writer that writes YAML to a file, an output stream, or an {@code Appendable}.
  */
 final class YamlWriter {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
     private final OutputStream outputStream;
+    private final Appendable appendable;
     private final YamlConfigurationProperties properties;
-    private BufferedWriter writer;
+    private Appendable writer;
 
     YamlWriter(OutputStream outputStream, YamlConfigurationProperties properties) {
         this.outputStream = requireNonNull(outputStream, "output stream");
+        this.appendable = null;
+        this.properties = requireNonNull(properties, "configuration properties");
+    }
+
+    /**
+     * Creates a writer that appends YAML directly to the given {@code Appendable}. Unlike
+     * the other constructors, no charset encoding takes place and the appendable is neither
+     * flushed nor closed.
+     */
+    YamlWriter(Appendable appendable, YamlConfigurationProperties properties) {
+        this.outputStream = null;
+        this.appendable = requireNonNull(appendable, "appendable");
         this.properties = requireNonNull(properties, "configuration properties");
     }
 
@@ -29,6 +43,7 @@ final class YamlWriter {
         requireNonNull(configurationFile, "configuration file");
         try {
             this.outputStream = Files.newOutputStream(configurationFile);
+            this.appendable = null;
             this.properties = properties;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -36,12 +51,21 @@ final class YamlWriter {
     }
 
     public void writeYaml(String yaml, Queue<CommentNode> nodes) {
+        if (appendable != null) {
+            try {
+                this.writer = appendable;
+                writeDocument(yaml, nodes);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                this.writer = null;
+            }
+            return;
+        }
         try (BufferedWriter writer = new BufferedWriter(
                 new OutputStreamWriter(outputStream, properties.getCharset()))) {
             this.writer = writer;
-            writeHeader();
-            writeContent(yaml, nodes);
-            writeFooter();
+            writeDocument(yaml, nodes);
         } catch (IOException e) {
             throw new RuntimeException(e);
         } finally {
@@ -49,16 +73,26 @@ final class YamlWriter {
         }
     }
 
+    private void writeDocument(String yaml, Queue<CommentNode> nodes) throws IOException {
+        writeHeader();
+        writeContent(yaml, nodes);
+        writeFooter();
+    }
+
+    private void newLine() throws IOException {
+        writer.append(LINE_SEPARATOR);
+    }
+
     private void writeHeader() throws IOException {
         if (properties.getHeader() != null) {
             writeAsComment(properties.getHeader());
-            writer.newLine();
+            newLine();
         }
     }
 
     private void writeFooter() throws IOException {
         if (properties.getFooter() != null) {
-            writer.newLine();
+            newLine();
             writeAsComment(properties.getFooter());
         }
     }
@@ -72,7 +106,7 @@ final class YamlWriter {
         String indent = repeat("  ", indentLevel);
         for (String comment : comments) {
             if (comment.isEmpty()) {
-                writer.newLine();
+                newLine();
                 continue;
             }
             String line = indent + "# " + comment;
@@ -81,13 +115,13 @@ final class YamlWriter {
     }
 
     private void writeLine(String line) throws IOException {
-        writer.write(line);
-        writer.newLine();
+        writer.append(line);
+        newLine();
     }
 
     private void writeContent(String yaml, Queue<CommentNode> nodes) throws IOException {
         if (nodes.isEmpty()) {
-            writer.write(yaml);
+            writer.append(yaml);
         } else {
             writeCommentedYaml(yaml, nodes);
         }
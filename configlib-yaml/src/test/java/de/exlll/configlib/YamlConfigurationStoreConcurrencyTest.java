@@ -0,0 +1,125 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress tests that use a single store from many threads at once, the way asynchronous
+ * saves and concurrent reloads do. The configurations resemble inventories of items whose
+ * values are nested maps and lists, like serialized {@code ConfigurationSerializable}s.
+ */
+class YamlConfigurationStoreConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 300;
+    private static final int ITEMS = 20;
+
+    @Configuration
+    static final class Item {
+        String type = "";
+        int amount;
+        List<String> lore = new ArrayList<>();
+        Map<String, Map<String, Integer>> meta = new LinkedHashMap<>();
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Item)) return false;
+            Item item = (Item) o;
+            return amount == item.amount &&
+                   type.equals(item.type) &&
+                   lore.equals(item.lore) &&
+                   meta.equals(item.meta);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, amount, lore, meta);
+        }
+    }
+
+    @Configuration
+    static final class Inventory {
+        String owner = "";
+        List<Item> items = new ArrayList<>();
+    }
+
+    private static final YamlConfigurationStore<Inventory> STORE = new YamlConfigurationStore<>(
+            Inventory.class,
+            YamlConfigurationProperties.newBuilder().build()
+    );
+
+    private static Inventory newInventory(int thread, int iteration) {
+        final Inventory inventory = new Inventory();
+        inventory.owner = "player-" + thread + "-" + iteration;
+        for (int i = 0; i < ITEMS; i++) {
+            final Item item = new Item();
+            item.type = "ITEM_" + thread + "_" + iteration + "_" + i;
+            item.amount = i + 1;
+            item.lore.add("line " + iteration);
+            item.lore.add("owner " + thread);
+            final Map<String, Integer> enchantments = new LinkedHashMap<>();
+            enchantments.put("sharpness", iteration % 5);
+            enchantments.put("unbreaking", thread);
+            item.meta.put("enchantments", enchantments);
+            inventory.items.add(item);
+        }
+        return inventory;
+    }
+
+    private static void assertInventoryEquals(Inventory expected, Inventory actual) {
+        assertEquals(expected.owner, actual.owner);
+        assertEquals(expected.items, actual.items);
+    }
+
+    private static void runConcurrently(ThreadAction action) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int t = thread;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int iteration = 0; iteration < ITERATIONS; iteration++)
+                        action.run(t, iteration);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentWritesAndReadsReturnTheWrittenConfigurations() throws Exception {
+        runConcurrently((thread, iteration) -> {
+            final Inventory inventory = newInventory(thread, iteration);
+            final StringBuilder yaml = new StringBuilder();
+            STORE.writeTo(inventory, yaml);
+            assertInventoryEquals(inventory, STORE.read(yaml));
+        });
+    }
+
+    @Test
+    void concurrentSavesAndLoadsOfDifferentFiles(@TempDir Path tempDir) throws Exception {
+        runConcurrently((thread, iteration) -> {
+            final Path file = tempDir.resolve("inventory-" + thread + ".yml");
+            final Inventory inventory = newInventory(thread, iteration);
+            STORE.save(inventory, file);
+            assertInventoryEquals(inventory, STORE.load(file));
+        });
+    }
+
+    @FunctionalInterface
+    private interface ThreadAction {
+        void run(int thread, int iteration) throws Exception;
+    }
+}
@@ -0,0 +1,100 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that write configurations to and read them from text, byte arrays, and byte
+ * buffers, the way plugins that keep their state in text or binary database columns do.
+ */
+class YamlConfigurationStoreInMemoryTest {
+    @Configuration
+    static final class PlayerData {
+        String name = "";
+        int coins;
+        List<String> unlocked = new ArrayList<>();
+        Map<String, Double> stats = new LinkedHashMap<>();
+    }
+
+    private static final YamlConfigurationStore<PlayerData> STORE = new YamlConfigurationStore<>(
+            PlayerData.class,
+            YamlConfigurationProperties.newBuilder().charset(StandardCharsets.UTF_8).build()
+    );
+
+    private static PlayerData newPlayerData() {
+        final PlayerData data = new PlayerData();
+        data.name = "Gr\u00fc\u00dfe";
+        data.coins = 1234;
+        data.unlocked.add("nether");
+        data.unlocked.add("end");
+        data.stats.put("kills", 12.0);
+        data.stats.put("deaths", 3.5);
+        return data;
+    }
+
+    private static void assertPlayerDataEquals(PlayerData expected, PlayerData actual) {
+        assertEquals(expected.name, actual.name);
+        assertEquals(expected.coins, actual.coins);
+        assertEquals(expected.unlocked, actual.unlocked);
+        assertEquals(expected.stats, actual.stats);
+    }
+
+    private static String toText(PlayerData data) {
+        final StringBuilder text = new StringBuilder();
+        STORE.writeTo(data, text);
+        return text.toString();
+    }
+
+    @Test
+    void textAndByteArraysRoundTrip() {
+        final PlayerData data = newPlayerData();
+        final byte[] bytes = toText(data).getBytes(StandardCharsets.UTF_8);
+
+        assertPlayerDataEquals(data, STORE.read(toText(data)));
+        assertPlayerDataEquals(data, STORE.read(bytes));
+    }
+
+    @Test
+    void bytesAreEncodedWithTheCharsetOfTheProperties() {
+        final PlayerData data = newPlayerData();
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        STORE.writeTo(data, buffer);
+        buffer.flip();
+
+        assertEquals(ByteBuffer.wrap(toText(data).getBytes(StandardCharsets.UTF_8)), buffer);
+    }
+
+    @Test
+    void readConsumesOnlyTheRemainingBytesOfSlicedAndDirectBuffers() {
+        final PlayerData data = newPlayerData();
+        final byte[] bytes = new byte[1024];
+        final ByteBuffer heap = ByteBuffer.wrap(bytes, 100, 924).slice();
+        STORE.writeTo(data, heap);
+        heap.flip();
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(heap.remaining());
+        direct.put(heap.duplicate()).flip();
+
+        assertPlayerDataEquals(data, STORE.read(heap));
+        assertEquals(heap.limit(), heap.position());
+        assertPlayerDataEquals(data, STORE.read(direct));
+        assertEquals(direct.limit(), direct.position());
+    }
+
+    @Test
+    void writeToBufferThatOverflowsWhileEncodingLeavesItsPositionUnchanged() {
+        // the buffer has room for every character but not for the two-byte ones
+        final PlayerData data = newPlayerData();
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + toText(data).length());
+        buffer.position(4);
+
+        assertThrows(BufferOverflowException.class, () -> STORE.writeTo(data, buffer));
+        assertEquals(4, buffer.position());
+    }
+}
@@ -0,0 +1,91 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that configurations saved from their serialized form, the way asynchronous saves
+ * do, are written exactly like configurations that are saved directly.
+ */
+class YamlConfigurationStoreSerializedSaveTest {
+    @Configuration
+    @Polymorphic
+    @PolymorphicTypes(@PolymorphicTypes.Type(type = Circle.class, alias = "circle"))
+    abstract static class Shape {
+        @Comment("The name of the shape")
+        String name = "shape";
+    }
+
+    @Configuration
+    static final class Circle extends Shape {
+        @Comment("The radius of the circle")
+        int radius = 3;
+    }
+
+    @Configuration
+    static final class Nested {
+        @Comment({"A nested value", "spanning two lines"})
+        int value = 1;
+    }
+
+    @Configuration
+    static final class Config {
+        @Comment("The owner")
+        String owner = "owner";
+        @Comment("Missing unless nulls are written")
+        String missing = null;
+        @Comment("A nested configuration")
+        Nested nested = new Nested();
+        @Comment("A polymorphic configuration")
+        Shape shape = new Circle();
+    }
+
+    private static String assertSavedEqually(YamlConfigurationProperties properties, Path tempDir)
+            throws IOException {
+        final YamlConfigurationStore<Config> store =
+                new YamlConfigurationStore<>(Config.class, properties);
+        final Path direct = tempDir.resolve("direct.yml");
+        final Path serialized = tempDir.resolve("serialized.yml");
+        final Config config = new Config();
+
+        store.save(config, direct);
+        store.saveSerialized(store.serializeForSave(config), serialized);
+
+        final String expected = new String(Files.readAllBytes(direct), properties.getCharset());
+        final String actual = new String(Files.readAllBytes(serialized), properties.getCharset());
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    void savesCommentsOfNestedAndPolymorphicConfigurations(@TempDir Path tempDir)
+            throws IOException {
+        final String yaml =
+                assertSavedEqually(YamlConfigurationProperties.newBuilder().build(), tempDir);
+        assertTrue(yaml.contains("# A nested value\n  # spanning two lines\n"), yaml);
+        assertTrue(yaml.contains("# The radius of the circle\n"), yaml);
+    }
+
+    @Test
+    void savesCommentsOfNullValues(@TempDir Path tempDir) throws IOException {
+        assertSavedEqually(
+                YamlConfigurationProperties.newBuilder().outputNulls(true).build(),
+                tempDir
+        );
+    }
+
+    @Test
+    void savesSnapshotCachedFiles(@TempDir Path tempDir) throws IOException {
+        assertSavedEqually(
+                YamlConfigurationProperties.newBuilder().cacheSnapshots(true).build(),
+                tempDir
+        );
+    }
+}
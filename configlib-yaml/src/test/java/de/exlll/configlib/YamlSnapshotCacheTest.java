@@ -0,0 +1,205 @@
+package de.exlll.configlib;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlSnapshotCacheTest {
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    @Configuration
+    static final class Config {
+        String name = "";
+    }
+
+    private static Map<String, Object> newTree(String name) {
+        final Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("name", name);
+        tree.put("values", Arrays.asList(1, 2L, 3.5, null, true));
+        return tree;
+    }
+
+    private Path writeSnapshot(byte[] contents, Object tree) {
+        final Path file = tempDir.resolve("config.yml");
+        YamlSnapshotCache.write(file, contents, LAST_MODIFIED, UTF_8, tree);
+        return file;
+    }
+
+    @Test
+    void readReturnsTheTreeOfAMatchingSnapshot() {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+
+        assertEquals(newTree("a"), YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void readIgnoresSnapshotIfContentsChangedButSizeAndTimeDidNot() {
+        final Path file = writeSnapshot("name: a".getBytes(UTF_8), newTree("a"));
+
+        final byte[] changed = "name: b".getBytes(UTF_8);
+        assertNull(YamlSnapshotCache.read(file, changed, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void readIgnoresSnapshotIfModificationTimeChanged() {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+
+        assertNull(YamlSnapshotCache.read(file, contents, LAST_MODIFIED + 1, UTF_8));
+    }
+
+    @Test
+    void readIgnoresSnapshotIfSizeChanged() {
+        final Path file = writeSnapshot("name: a".getBytes(UTF_8), newTree("a"));
+
+        final byte[] changed = "name: ab".getBytes(UTF_8);
+        assertNull(YamlSnapshotCache.read(file, changed, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void readIgnoresSnapshotIfCharsetChanged() {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+
+        assertNull(YamlSnapshotCache.read(file, contents, LAST_MODIFIED, StandardCharsets.UTF_16));
+    }
+
+    @Test
+    void readIgnoresMissingSnapshot() {
+        final Path file = tempDir.resolve("config.yml");
+        final byte[] contents = "name: a".getBytes(UTF_8);
+
+        assertNull(YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void readIgnoresTruncatedSnapshots() throws IOException {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+        final Path snapshotFile = YamlSnapshotCache.snapshotFileOf(file);
+        final byte[] snapshot = Files.readAllBytes(snapshotFile);
+
+        for (int length = 0; length < snapshot.length; length++) {
+            Files.write(snapshotFile, Arrays.copyOf(snapshot, length));
+            assertNull(
+                    YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8),
+                    "length " + length
+            );
+        }
+    }
+
+    @Test
+    void readIgnoresSnapshotsWithTrailingBytes() throws IOException {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+        final Path snapshotFile = YamlSnapshotCache.snapshotFileOf(file);
+        final byte[] snapshot = Files.readAllBytes(snapshotFile);
+
+        Files.write(snapshotFile, Arrays.copyOf(snapshot, snapshot.length + 1));
+
+        assertNull(YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void readDoesNotThrowForCorruptSnapshots() throws IOException {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+        final Path snapshotFile = YamlSnapshotCache.snapshotFileOf(file);
+        final byte[] snapshot = Files.readAllBytes(snapshotFile);
+
+        for (int i = 0; i < snapshot.length; i++) {
+            final byte[] corrupt = snapshot.clone();
+            corrupt[i] ^= (byte) 0xFF;
+            Files.write(snapshotFile, corrupt);
+            // corrupting the tree may still yield a valid but different tree
+            final Object tree = YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8);
+            assertTrue((tree == null) || !tree.equals(newTree("a")), "byte " + i);
+        }
+    }
+
+    @Test
+    void readIgnoresSnapshotsThatAreNestedTooDeeply() throws IOException {
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        final Path file = writeSnapshot(contents, newTree("a"));
+        final Path snapshotFile = YamlSnapshotCache.snapshotFileOf(file);
+        final byte[] snapshot = Files.readAllBytes(snapshotFile);
+        final int headerLength = snapshot.length - BinaryTreeCodec.encode(newTree("a")).length;
+
+        // lists of size one, nested far deeper than the stack allows
+        final int depth = 1_000_000;
+        final byte[] corrupt = Arrays.copyOf(snapshot, headerLength + 2 * depth + 1);
+        for (int i = 0; i < depth; i++) {
+            corrupt[headerLength + 2 * i] = 10;
+            corrupt[headerLength + 2 * i + 1] = 1;
+        }
+        Files.write(snapshotFile, corrupt);
+
+        assertNull(YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8));
+    }
+
+    @Test
+    void storeParsesFileAgainIfContentsChangedButSizeAndTimeDidNot() throws IOException {
+        final YamlConfigurationStore<Config> store = new YamlConfigurationStore<>(
+                Config.class,
+                YamlConfigurationProperties.newBuilder().cacheSnapshots(true).build()
+        );
+        final Path file = tempDir.resolve("config.yml");
+        Files.write(file, "name: a\n".getBytes(UTF_8));
+        final FileTime lastModified = Files.getLastModifiedTime(file);
+        assertEquals("a", store.load(file).name);
+
+        Files.write(file, "name: b\n".getBytes(UTF_8));
+        Files.setLastModifiedTime(file, lastModified);
+
+        assertEquals("b", store.load(file).name);
+    }
+
+    @Test
+    void concurrentWritesLeaveValidSnapshotsAndNoTemporaryFiles() throws Exception {
+        final int threads = 8;
+        final int iterations = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final byte[] contents = "name: a".getBytes(UTF_8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                // half of the threads share a file, the others use their own
+                final Path file = tempDir.resolve("config" + (thread % 2 == 0 ? 0 : thread) + ".yml");
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < iterations; i++) {
+                        YamlSnapshotCache.write(file, contents, LAST_MODIFIED, UTF_8, newTree("a"));
+                        final Object tree = YamlSnapshotCache.read(file, contents, LAST_MODIFIED, UTF_8);
+                        assertEquals(newTree("a"), tree);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            files.forEach(file -> assertFalse(file.toString().endsWith(".tmp"), file.toString()));
+        }
+    }
+}
@@ -1,6 +1,9 @@
 rootProject.name = "ConfigLib"
 include("configlib-core")
 include("configlib-yaml")
+include("configlib-json")
+include("configlib-binary")
 include("configlib-spigot")
 include("configlib-waterfall")
 include("configlib-velocity")
+include("configlib-benchmarks")